@@ -38,6 +38,7 @@ import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
+import squidpony.squidai.DijkstraBatch;
 import squidpony.squidai.DijkstraMap;
 import squidpony.squidgrid.mapping.DungeonGenerator;
 import squidpony.squidgrid.mapping.DungeonUtility;
@@ -45,6 +46,9 @@ import squidpony.squidmath.Coord;
 import squidpony.squidmath.LightRNG;
 import squidpony.squidmath.StatefulRNG;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 public class DijkstraBenchmark {
@@ -99,6 +103,57 @@ public class DijkstraBenchmark {
         doScan();
     }
 
+    public void doScanFrontier()
+    {
+        DijkstraMap dijkstra = new DijkstraMap(
+                map, DijkstraMap.Measurement.CHEBYSHEV, new StatefulRNG(new LightRNG(0x1337BEEF)));
+        dijkstra.frontierScan = true;
+
+        for (int x = 1; x < DIMENSION - 1; x++) {
+            for (int y = 1; y < DIMENSION - 1; y++) {
+                if (map[x][y] == '#')
+                    continue;
+                ((StatefulRNG) dijkstra.rng).setState((x << 20) | (y << 14) | (x * y));
+                dijkstra.setGoal(x, y);
+                dijkstra.scan(null);
+                dijkstra.clearGoals();
+                dijkstra.resetMap();
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void measureScanFrontier() throws InterruptedException {
+        doScanFrontier();
+    }
+
+    public static final DijkstraBatch batch = new DijkstraBatch(
+            new DijkstraMap(map, DijkstraMap.Measurement.CHEBYSHEV));
+    public static final List<List<Coord>> batchGoals = new ArrayList<List<Coord>>();
+    static {
+        for (int x = 1; x < DIMENSION - 1; x++) {
+            for (int y = 1; y < DIMENSION - 1; y++) {
+                if (map[x][y] != '#')
+                    batchGoals.add(Collections.singletonList(Coord.get(x, y)));
+            }
+        }
+    }
+    public static final double[][][] batchResults = new double[batchGoals.size()][map.length][map[0].length];
+
+    public void doScanBatch()
+    {
+        batch.scanInto(batchGoals, null, batchResults);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void measureScanBatch() throws InterruptedException {
+        doScanBatch();
+    }
+
     public void doPath()
     {
         DijkstraMap dijkstra = new DijkstraMap(
@@ -127,6 +182,33 @@ public class DijkstraBenchmark {
         doPath();
     }
 
+    public void doPathFrontier()
+    {
+        DijkstraMap dijkstra = new DijkstraMap(
+                map, DijkstraMap.Measurement.CHEBYSHEV, new StatefulRNG(new LightRNG(0x1337BEEF)));
+        dijkstra.frontierScan = true;
+        Coord r;
+        DungeonUtility utility = new DungeonUtility(new StatefulRNG(new LightRNG(0x1337BEEFDEAL)));
+        for (int x = 1; x < DIMENSION - 1; x++) {
+            for (int y = 1; y < DIMENSION - 1; y++) {
+                if (map[x][y] == '#')
+                    continue;
+                utility.rng.setState((x << 22) | (y << 16) | (x * y));
+                ((StatefulRNG) dijkstra.rng).setState((x << 20) | (y << 14) | (x * y));
+                r = utility.randomFloor(map);
+                dijkstra.findPath(PATH_LENGTH, null, null, r, Coord.get(x, y));
+                dijkstra.clearGoals();
+                dijkstra.resetMap();
+            }
+        }
+    }
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void measurePathFrontier() throws InterruptedException {
+        doPathFrontier();
+    }
+
     /*
      * ============================== HOW TO RUN THIS TEST: ====================================
      *
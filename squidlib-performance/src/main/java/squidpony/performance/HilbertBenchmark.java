@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2014, Oracle America, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of Oracle nor the names of its contributors may be used
+ *    to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package squidpony.performance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import squidpony.squidmath.Coord;
+import squidpony.squidmath.CoordPacker;
+import squidpony.squidmath.LightRNG;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ways CoordPacker has to convert between x, y positions, Morton codes, and distances along the 256x256
+ * Hilbert curve. Each benchmark converts the same SIZE randomly-ordered inputs, so times can be compared directly
+ * between the one-at-a-time methods and the batch methods that take arrays.
+ */
+public class HilbertBenchmark {
+
+    public static final int SIZE = 0x10000;
+    public static final int[] xs = new int[SIZE], ys = new int[SIZE], mortons = new int[SIZE], hilberts = new int[SIZE],
+            outA = new int[SIZE], outB = new int[SIZE];
+    public static final Coord[] points = new Coord[SIZE], outPoints = new Coord[SIZE];
+    static {
+        LightRNG rng = new LightRNG(0x1337BEEFDEAL);
+        for (int i = 0; i < SIZE; i++) {
+            xs[i] = rng.nextInt(256);
+            ys[i] = rng.nextInt(256);
+            points[i] = Coord.get(xs[i], ys[i]);
+            mortons[i] = CoordPacker.mortonEncode(xs[i], ys[i]);
+            hilberts[i] = CoordPacker.posToHilbert(xs[i], ys[i]);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measurePosToHilbert() {
+        long sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += CoordPacker.posToHilbert(xs[i], ys[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measureCoordToHilbert() {
+        long sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += CoordPacker.coordToHilbert(points[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measureMortonToHilbert() {
+        long sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += CoordPacker.mortonToHilbert(mortons[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int[] measureBatchPosToHilbert() {
+        return CoordPacker.posToHilbert(xs, ys, outA);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int[] measureBatchCoordsToHilbert() {
+        return CoordPacker.coordsToHilbert(points, outA);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int[] measureBatchMortonToHilbert() {
+        return CoordPacker.mortonToHilbert(mortons, outA);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measureHilbertLUT() {
+        long sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += CoordPacker.hilbertX[hilberts[i]] + CoordPacker.hilbertY[hilberts[i]];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measureHilbertToMorton() {
+        long sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += CoordPacker.hilbertToMorton(hilberts[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measureHilbertToCoord() {
+        long sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += CoordPacker.hilbertToCoord(hilberts[i]).x;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measureHilbertToMortonNoLUT() {
+        long sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += CoordPacker.hilbertToMortonNoLUT(hilberts[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measureHilbertToCoordNoLUT() {
+        long sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += CoordPacker.hilbertToCoordNoLUT(hilberts[i]).x;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int[] measureBatchHilbertToPos() {
+        CoordPacker.hilbertToPos(hilberts, outA, outB);
+        return outA;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int[] measureBatchHilbertToMorton() {
+        return CoordPacker.hilbertToMorton(hilberts, outA);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Coord[] measureBatchHilbertToCoords() {
+        return CoordPacker.hilbertToCoords(hilberts, outPoints);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measureMortonEncode() {
+        long sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += CoordPacker.mortonEncode(xs[i], ys[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measureMortonEncode16() {
+        long sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += CoordPacker.mortonEncode16(xs[i], ys[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measureZEncode() {
+        long sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += CoordPacker.zEncode((short) xs[i], (short) ys[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measureMortonDecode() {
+        long sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += CoordPacker.mortonDecode(mortons[i]).x;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measureMortonDecode16() {
+        long sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += CoordPacker.mortonDecode16(mortons[i]).x;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measureZDecode() {
+        long sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += CoordPacker.zDecode((short) mortons[i]).x;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measureZDecodeXY() {
+        long sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += CoordPacker.zDecodeX(mortons[i]) + CoordPacker.zDecodeY(mortons[i]);
+        }
+        return sum;
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS TEST: ====================================
+     *
+     * You can run this test:
+     *
+     * a) Via the command line from the squidlib-performance module's root folder:
+     *    $ mvn clean install
+     *    $ java -jar target/benchmarks.jar HilbertBenchmark -wi 10 -i 10 -f 1
+     *
+     *    (we requested 10 warmup/measurement iterations, single fork)
+     *
+     * b) Via the Java API:
+     *    (see the JMH homepage for possible caveats when running from IDE:
+     *      http://openjdk.java.net/projects/code-tools/jmh/)
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(HilbertBenchmark.class.getSimpleName())
+                .warmupIterations(10)
+                .measurementIterations(10)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
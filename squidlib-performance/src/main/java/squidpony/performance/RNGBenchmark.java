@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2014, Oracle America, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of Oracle nor the names of its contributors may be used
+ *    to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package squidpony.performance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import squidpony.squidmath.LightRNG;
+import squidpony.squidmath.PermutedRNG;
+import squidpony.squidmath.RNG;
+import squidpony.squidmath.XorRNG;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares getting SIZE random numbers from an RNG one call at a time against filling an array with the bulk methods,
+ * for each of the fast RandomnessSources. The per-call benchmarks go through RNG and the RandomnessSource interface
+ * for every number, while the bulk ones make one call and let the generator run its own loop.
+ */
+public class RNGBenchmark {
+
+    public static final int SIZE = 0x10000;
+    public static final int[] ints = new int[SIZE];
+    public static final long[] longs = new long[SIZE];
+    public static final double[] doubles = new double[SIZE];
+    public static final RNG light = new RNG(new LightRNG(0x1337BEEFDEAL)),
+            permuted = new RNG(new PermutedRNG(0x1337BEEFDEAL)),
+            xor = new RNG(new XorRNG(0x1337BEEFDEAL));
+
+    private static long sumInts(RNG rng) {
+        long sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += rng.nextInt(1000);
+        }
+        return sum;
+    }
+
+    private static long sumLongs(RNG rng) {
+        long sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += rng.nextLong();
+        }
+        return sum;
+    }
+
+    private static double sumDoubles(RNG rng) {
+        double sum = 0;
+        for (int i = 0; i < SIZE; i++) {
+            sum += rng.nextDouble();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measureLightInts() {
+        return sumInts(light);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int[] measureLightBulkInts() {
+        return light.nextInts(ints, 1000);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measureLightLongs() {
+        return sumLongs(light);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long[] measureLightBulkLongs() {
+        return light.nextLongs(longs);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double measureLightDoubles() {
+        return sumDoubles(light);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double[] measureLightBulkDoubles() {
+        return light.nextDoubles(doubles);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measurePermutedInts() {
+        return sumInts(permuted);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int[] measurePermutedBulkInts() {
+        return permuted.nextInts(ints, 1000);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measurePermutedLongs() {
+        return sumLongs(permuted);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long[] measurePermutedBulkLongs() {
+        return permuted.nextLongs(longs);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double measurePermutedDoubles() {
+        return sumDoubles(permuted);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double[] measurePermutedBulkDoubles() {
+        return permuted.nextDoubles(doubles);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measureXorInts() {
+        return sumInts(xor);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int[] measureXorBulkInts() {
+        return xor.nextInts(ints, 1000);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long measureXorLongs() {
+        return sumLongs(xor);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long[] measureXorBulkLongs() {
+        return xor.nextLongs(longs);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double measureXorDoubles() {
+        return sumDoubles(xor);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double[] measureXorBulkDoubles() {
+        return xor.nextDoubles(doubles);
+    }
+
+    /*
+     * ============================== HOW TO RUN THIS TEST: ====================================
+     *
+     * You can run this test:
+     *
+     * a) Via the command line from the squidlib-performance module's root folder:
+     *    $ mvn clean install
+     *    $ java -jar target/benchmarks.jar RNGBenchmark -wi 10 -i 10 -f 1
+     *
+     *    (we requested 10 warmup/measurement iterations, single fork)
+     *
+     * b) Via the Java API:
+     *    (see the JMH homepage for possible caveats when running from IDE:
+     *      http://openjdk.java.net/projects/code-tools/jmh/)
+     */
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(RNGBenchmark.class.getSimpleName())
+                .warmupIterations(10)
+                .measurementIterations(10)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,207 @@
+package squidpony.squidai;
+
+import squidpony.squidmath.Coord;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Scans many independent sets of goals over the same map at once, spreading the work over a ForkJoinPool. This is
+ * meant for when a game needs dozens of Dijkstra maps per turn, such as one approach map per faction plus flee maps
+ * for each of them, and running them one at a time on a single DijkstraMap would leave most cores idle.
+ * <br>
+ * The physicalMap and costMap of the DijkstraMap this is constructed with are shared by every scan rather than
+ * copied, so they must not be changed while a batch is running. Each worker thread keeps its own DijkstraFrontier as
+ * scratch space, reused across scans and across batches, so scanning into arrays from a previous batch with
+ * scanInto() or fleeScanInto() does not allocate per goal set. Results match what DijkstraMap.scan() gives with
+ * frontierScan set to true.
+ */
+public class DijkstraBatch {
+    /**
+     * The terrain shared by every scan; this is the same array as the source DijkstraMap's physicalMap.
+     */
+    public final double[][] physicalMap;
+    /**
+     * The entry costs shared by every scan; this is the same array as the source DijkstraMap's costMap.
+     */
+    public final double[][] costMap;
+    /**
+     * The dimensions of physicalMap and costMap.
+     */
+    public final int width, height;
+    /**
+     * The kind of movement used by every scan in a batch; defaults to the measurement of the source DijkstraMap.
+     */
+    public DijkstraMap.Measurement measurement;
+
+    protected final ForkJoinPool pool;
+    private final ThreadLocal<DijkstraFrontier> scratch = new ThreadLocal<DijkstraFrontier>() {
+        @Override
+        protected DijkstraFrontier initialValue() {
+            return new DijkstraFrontier(width, height);
+        }
+    };
+
+    /**
+     * Shares the physicalMap, costMap, and measurement of an initialized DijkstraMap, using one thread per available
+     * processor.
+     * @param source an initialized DijkstraMap; its goals and gradientMap are ignored
+     */
+    public DijkstraBatch(DijkstraMap source) {
+        this(source, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Shares the physicalMap, costMap, and measurement of an initialized DijkstraMap, using the given number of
+     * threads.
+     * @param source an initialized DijkstraMap; its goals and gradientMap are ignored
+     * @param threadCount how many threads to scan with; must be at least 1
+     */
+    public DijkstraBatch(DijkstraMap source, int threadCount) {
+        if(source == null || source.physicalMap == null)
+            throw new IllegalStateException("DijkstraMap must be initialized first!");
+        physicalMap = source.physicalMap;
+        costMap = source.costMap;
+        width = source.width;
+        height = source.height;
+        measurement = source.measurement;
+        pool = new ForkJoinPool(threadCount);
+    }
+
+    /**
+     * Scans once per entry in goalSets, treating every Coord in an entry as a goal, and returns one gradient map per
+     * entry in the same order. Goals on walls are ignored, as with DijkstraMap.setGoal().
+     *
+     * @param goalSets a List of groups of goals; each group gets its own scan
+     * @param impassable cells that cannot be entered in any of the scans, unless they are goals; may be null
+     * @return an array with one double[width][height] gradient map per entry in goalSets
+     */
+    public double[][][] scan(List<? extends Collection<Coord>> goalSets, Set<Coord> impassable) {
+        double[][][] results = new double[goalSets.size()][width][height];
+        scanInto(goalSets, impassable, results);
+        return results;
+    }
+
+    /**
+     * Scans once per entry in goalSets, like scan(), but writes into existing gradient maps instead of allocating
+     * new ones.
+     *
+     * @param goalSets a List of groups of goals; each group gets its own scan
+     * @param impassable cells that cannot be entered in any of the scans, unless they are goals; may be null
+     * @param results must have at least goalSets.size() elements, each a double[width][height]; will be overwritten
+     */
+    public void scanInto(List<? extends Collection<Coord>> goalSets, Set<Coord> impassable, double[][][] results) {
+        pool.invoke(new ScanTask(goalSets, impassable, results, 0.0, 0, goalSets.size()));
+    }
+
+    /**
+     * Produces one flee map per entry in goalSets, in the same way DijkstraMap.findFleePath() does: each scan's
+     * distances are multiplied by the negative of preferLongerPaths and scanned again, so lower values are safer.
+     *
+     * @param goalSets a List of groups of cells to flee from; each group gets its own flee map
+     * @param impassable cells that cannot be entered in any of the scans, unless they are goals; may be null
+     * @param preferLongerPaths Set this to 1.2 if you aren't sure; higher values prefer escaping through doorways
+     * @return an array with one double[width][height] flee map per entry in goalSets
+     */
+    public double[][][] fleeScan(List<? extends Collection<Coord>> goalSets, Set<Coord> impassable,
+                                 double preferLongerPaths) {
+        double[][][] results = new double[goalSets.size()][width][height];
+        fleeScanInto(goalSets, impassable, preferLongerPaths, results);
+        return results;
+    }
+
+    /**
+     * Produces one flee map per entry in goalSets, like fleeScan(), but writes into existing gradient maps instead of
+     * allocating new ones.
+     *
+     * @param goalSets a List of groups of cells to flee from; each group gets its own flee map
+     * @param impassable cells that cannot be entered in any of the scans, unless they are goals; may be null
+     * @param preferLongerPaths Set this to 1.2 if you aren't sure; higher values prefer escaping through doorways
+     * @param results must have at least goalSets.size() elements, each a double[width][height]; will be overwritten
+     */
+    public void fleeScanInto(List<? extends Collection<Coord>> goalSets, Set<Coord> impassable,
+                             double preferLongerPaths, double[][][] results) {
+        pool.invoke(new ScanTask(goalSets, impassable, results, preferLongerPaths, 0, goalSets.size()));
+    }
+
+    /**
+     * Stops the worker threads once any running batch finishes. Further batches will be rejected.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Runs a single scan on the calling thread, using that thread's DijkstraFrontier.
+     */
+    protected void scanOne(Collection<Coord> goals, Set<Coord> impassable, double[][] gradient,
+                           double preferLongerPaths) {
+        DijkstraFrontier frontier = scratch.get();
+        for (int x = 0; x < width; x++) {
+            System.arraycopy(physicalMap[x], 0, gradient[x], 0, height);
+        }
+        prepare(frontier, goals, impassable, gradient);
+        frontier.scan(gradient, costMap, measurement, 0, 1);
+        if(preferLongerPaths != 0.0) {
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    gradient[x][y] *= (gradient[x][y] >= DijkstraMap.FLOOR) ? 1.0 : (0.0 - preferLongerPaths);
+                }
+            }
+            prepare(frontier, goals, impassable, gradient);
+            frontier.scan(gradient, costMap, measurement, 0, 1);
+        }
+    }
+
+    private void prepare(DijkstraFrontier frontier, Collection<Coord> goals, Set<Coord> impassable,
+                         double[][] gradient) {
+        for (Coord g : goals) {
+            if(physicalMap[g.x][g.y] > DijkstraMap.FLOOR)
+                continue;
+            gradient[g.x][g.y] = DijkstraMap.GOAL;
+            frontier.protect(g.x, g.y);
+        }
+        if(impassable != null) {
+            for (Coord pt : impassable) {
+                frontier.block(pt.x, pt.y);
+            }
+        }
+    }
+
+    /**
+     * Splits a range of goal sets in half until only one is left, then scans it.
+     */
+    private class ScanTask extends RecursiveAction {
+        private static final long serialVersionUID = 300L;
+        private final List<? extends Collection<Coord>> goalSets;
+        private final Set<Coord> impassable;
+        private final double[][][] results;
+        private final double preferLongerPaths;
+        private final int start, end;
+
+        ScanTask(List<? extends Collection<Coord>> goalSets, Set<Coord> impassable, double[][][] results,
+                 double preferLongerPaths, int start, int end) {
+            this.goalSets = goalSets;
+            this.impassable = impassable;
+            this.results = results;
+            this.preferLongerPaths = preferLongerPaths;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= 1) {
+                if (end > start)
+                    scanOne(goalSets.get(start), impassable, results[start], preferLongerPaths);
+                return;
+            }
+            int mid = (start + end) >>> 1;
+            invokeAll(new ScanTask(goalSets, impassable, results, preferLongerPaths, start, mid),
+                    new ScanTask(goalSets, impassable, results, preferLongerPaths, mid, end));
+        }
+    }
+}
@@ -0,0 +1,570 @@
+package squidpony.squidai;
+
+import java.util.Arrays;
+
+/**
+ * The flood-fill engine DijkstraMap uses when its frontierScan field is true. Instead of LinkedHashMaps of Coord keys
+ * to boxed Double values, this keeps every cell as an int index equal to {@code x + y * width}, stores distances in a
+ * flat double array, and orders the frontier with a bucket queue whose buckets are intrusive linked lists threaded
+ * through int arrays. All of those arrays are allocated once, when the DijkstraFrontier is constructed, and are reused
+ * for every scan, so a scan does not allocate anything.
+ * <br>
+ * Each bucket covers a range of distances no wider than the cheapest possible step, which means cells in one bucket
+ * cannot improve each other and each cell is usually settled the first time it is taken from the queue. If costs are
+ * zero or vary too widely for that to fit in the fixed bucket count, buckets get wider and a cell that is improved
+ * after being taken out is simply put back in, so the result is still exact, just with some repeated work.
+ * <br>
+ * You normally don't need to use this class directly; set {@link DijkstraMap#frontierScan} to true and the scan(),
+ * partialScan(), and find*Path methods of that DijkstraMap will use one of these. A DijkstraFrontier is not
+ * thread-safe, but separate instances share nothing, so one per thread can scan the same maps at the same time.
+ */
+public class DijkstraFrontier {
+    /**
+     * The dimensions this was constructed with; gradient and cost maps passed to scan() must match them.
+     */
+    public final int width, height;
+    /**
+     * The distances of the most recent scan, indexed by {@code x + y * width}. This is overwritten by each scan.
+     */
+    public final double[] gradient;
+
+    private static final int BUCKETS = 1024;
+    private static final byte CLOSED = 1, PROTECTED = 2, QUEUED = 4, TOUCHED = 8, DIRTY = 16;
+
+    private final byte[] state;
+    private final int[] next, prev, bucket, steps;
+    private final int[] heads = new int[BUCKETS + 2];
+
+    private int bucketCount, queued;
+    private double base, bucketWidth, minCost, maxCost;
+    private long current;
+
+    // only allocated once scanIncremental() is used
+    private double[] goalValues;
+    private int[] touched, dirty;
+    private int touchedCount, dirtyCount;
+    private boolean repairing = false;
+    private DijkstraMap.Measurement incrementalMeasurement, floodMeasurement;
+
+    /**
+     * Allocates all the buffers needed to scan maps of the given size.
+     * @param width the width of the maps this will scan
+     * @param height the height of the maps this will scan
+     */
+    public DijkstraFrontier(int width, int height) {
+        this.width = width;
+        this.height = height;
+        int size = width * height;
+        gradient = new double[size];
+        state = new byte[size];
+        next = new int[size];
+        prev = new int[size];
+        bucket = new int[size];
+        steps = new int[size];
+    }
+
+    /**
+     * Marks a cell as impassable for the next scan only, unless it has been protected as a goal. The mark is cleared
+     * when scan() finishes.
+     * @param x the x-coordinate of the cell to block
+     * @param y the y-coordinate of the cell to block
+     */
+    public void block(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            return;
+        state[x + y * width] |= CLOSED;
+    }
+
+    /**
+     * Marks a cell as a goal for the next scan only, which keeps block() and the size checks in scan() from closing
+     * it. The mark is cleared when scan() finishes.
+     * @param x the x-coordinate of the goal
+     * @param y the y-coordinate of the goal
+     */
+    public void protect(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            return;
+        state[x + y * width] |= PROTECTED;
+    }
+
+    /**
+     * Floods gradientMap outward from its lowest-valued cells, the same way DijkstraMap.scan() does, and writes the
+     * result back into gradientMap (marking unreached floor cells as DARK). Cells with a value higher than
+     * DijkstraMap.FLOOR are never entered unless protected, and neither are cells passed to block() since the last
+     * scan. Any cell that already holds a value lower than the distance the flood would give it keeps its value.
+     *
+     * @param gradientMap the map to flood, with goals already set; this is read and then overwritten
+     * @param costMap the cost to enter each cell, as in DijkstraMap.costMap
+     * @param measurement determines which neighbors are considered and how much diagonal steps cost
+     * @param limit the maximum number of steps to take from a goal, or 0 or less to take any number of steps
+     * @param size the side length of a square creature using the map, or 1 for normal single-cell creatures
+     * @return the number of times a cell was assigned a lower distance
+     */
+    public int scan(double[][] gradientMap, double[][] costMap, DijkstraMap.Measurement measurement,
+                    int limit, int size) {
+        repairing = false;
+        load(gradientMap, costMap, size, false);
+
+        double lowest = 999000.0;
+        int i;
+        for (i = 0; i < gradient.length; i++) {
+            if (gradient[i] <= lowest && gradient[i] <= DijkstraMap.FLOOR && fits(i, size))
+                lowest = gradient[i];
+        }
+        startQueue(measurement, lowest);
+        for (i = 0; i < gradient.length; i++) {
+            if (gradient[i] == lowest && fits(i, size)) {
+                steps[i] = 0;
+                enqueue(i);
+            }
+        }
+        int assigned = flood(costMap, limit, false);
+
+        double g;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0, idx = x; y < height; y++, idx += width) {
+                g = gradient[idx];
+                if (g == DijkstraMap.FLOOR)
+                    gradient[idx] = g = DijkstraMap.DARK;
+                gradientMap[x][y] = g;
+                state[idx] = 0;
+            }
+        }
+        return assigned;
+    }
+
+    /**
+     * Floods gradientMap like scan() with no limit and a size of 1, but remembers the goals, blocked cells, and
+     * distances afterwards so that later changes can be applied with repair() instead of scanning again. Only protected
+     * cells are treated as goals here; any other values lower than DijkstraMap.FLOOR in gradientMap are discarded.
+     *
+     * @param gradientMap the map to flood, with goals already set and protected; this is read and then overwritten
+     * @param costMap the cost to enter each cell, as in DijkstraMap.costMap
+     * @param measurement determines which neighbors are considered and how much diagonal steps cost
+     * @return the number of times a cell was assigned a lower distance
+     */
+    public int scanIncremental(double[][] gradientMap, double[][] costMap, DijkstraMap.Measurement measurement) {
+        if (goalValues == null) {
+            goalValues = new double[gradient.length];
+            touched = new int[gradient.length];
+            dirty = new int[gradient.length];
+        }
+        load(gradientMap, costMap, 1, true);
+        double lowest = DijkstraMap.FLOOR;
+        int i;
+        for (i = 0; i < gradient.length; i++) {
+            if ((state[i] & PROTECTED) != 0 && gradient[i] < lowest)
+                lowest = gradient[i];
+        }
+        startQueue(measurement, lowest);
+        for (i = 0; i < gradient.length; i++) {
+            if ((state[i] & PROTECTED) != 0) {
+                goalValues[i] = gradient[i];
+                enqueue(i);
+            }
+        }
+        int assigned = flood(costMap, 0, false);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0, idx = x; y < height; y++, idx += width) {
+                store(gradientMap, idx, x, y);
+            }
+        }
+        dirtyCount = 0;
+        incrementalMeasurement = measurement;
+        repairing = true;
+        return assigned;
+    }
+
+    /**
+     * Returns true if scanIncremental() has been called and its results can still be updated with repair().
+     * @return true if repair() can be used
+     */
+    public boolean isRepairing() {
+        return repairing;
+    }
+
+    /**
+     * Forgets any goals and blocked cells remembered by scanIncremental(), so the next call must be to scan() or
+     * scanIncremental() rather than repair().
+     */
+    public void clearRepair() {
+        repairing = false;
+        Arrays.fill(state, (byte) 0);
+        dirtyCount = 0;
+    }
+
+    /**
+     * Adds or changes a goal for the next repair(); only useful after scanIncremental().
+     * @param x the x-coordinate of the goal
+     * @param y the y-coordinate of the goal
+     * @param value the value the goal should have, usually DijkstraMap.GOAL
+     */
+    public void setGoal(int x, int y, double value) {
+        if (!repairing || x < 0 || y < 0 || x >= width || y >= height)
+            return;
+        int i = x + y * width;
+        state[i] |= PROTECTED;
+        goalValues[i] = value;
+        markDirty(i);
+    }
+
+    /**
+     * Removes a goal for the next repair(); only useful after scanIncremental().
+     * @param x the x-coordinate of the goal to remove
+     * @param y the y-coordinate of the goal to remove
+     */
+    public void removeGoal(int x, int y) {
+        if (!repairing || x < 0 || y < 0 || x >= width || y >= height)
+            return;
+        int i = x + y * width;
+        if ((state[i] & PROTECTED) == 0)
+            return;
+        state[i] &= ~PROTECTED;
+        markDirty(i);
+    }
+
+    /**
+     * Blocks or unblocks a cell for the next repair(); only useful after scanIncremental(). Goals can't be blocked,
+     * but a blocked cell that is a goal becomes blocked again if the goal is removed.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @param closed true if the cell should become impassable, false if it should become passable
+     */
+    public void setClosed(int x, int y, boolean closed) {
+        if (!repairing || x < 0 || y < 0 || x >= width || y >= height)
+            return;
+        int i = x + y * width;
+        if (((state[i] & CLOSED) != 0) == closed)
+            return;
+        if (closed)
+            state[i] |= CLOSED;
+        else
+            state[i] &= ~CLOSED;
+        markDirty(i);
+    }
+
+    /**
+     * Notes that the cost to enter a cell has changed, so the next repair() will take it into account; only useful
+     * after scanIncremental().
+     * @param x the x-coordinate of the cell whose cost changed
+     * @param y the y-coordinate of the cell whose cost changed
+     */
+    public void costChanged(int x, int y) {
+        if (!repairing || x < 0 || y < 0 || x >= width || y >= height)
+            return;
+        markDirty(x + y * width);
+    }
+
+    /**
+     * Applies every change made with setGoal(), removeGoal(), setClosed(), and costChanged() since the last
+     * scanIncremental() or repair(), and writes the cells whose distances changed into gradientMap. Cells whose best
+     * path went through a changed cell are first invalidated, then refilled from their unaffected neighbors, and then
+     * any improvement spreads outward like a normal scan, so the work done is proportional to the area whose
+     * distances actually changed rather than to the whole map. Blocked cells are never written to gradientMap, so the
+     * caller is responsible for marking them (DijkstraMap uses WALL).
+     *
+     * @param gradientMap the map last passed to scanIncremental(); only changed cells are written to it
+     * @param costMap the cost to enter each cell, including any changes
+     * @return the number of cells whose distance was recalculated
+     */
+    public int repair(double[][] gradientMap, double[][] costMap) {
+        if (!repairing)
+            return 0;
+        boolean euclid = incrementalMeasurement == DijkstraMap.Measurement.EUCLIDEAN;
+        int dirCount = (incrementalMeasurement == DijkstraMap.Measurement.MANHATTAN) ? 4 : 8;
+        int u, v, vx, vy, ux, uy, k;
+        double old, d, best;
+        touchedCount = 0;
+        for (k = 0; k < dirtyCount; k++) {
+            u = dirty[k];
+            state[u] &= ~DIRTY;
+            if (!closed(u)) {
+                d = costMap[u % width][u / width];
+                if (d < minCost) minCost = d;
+                if (d > maxCost) maxCost = d;
+            }
+            if ((state[u] & TOUCHED) == 0) {
+                state[u] |= TOUCHED;
+                touched[touchedCount++] = u;
+            }
+        }
+        dirtyCount = 0;
+        // first, invalidate every cell that could have gotten its distance through a changed cell
+        for (k = 0; k < touchedCount; k++) {
+            u = touched[k];
+            old = gradient[u];
+            gradient[u] = DijkstraMap.FLOOR;
+            if (old >= DijkstraMap.FLOOR)
+                continue;
+            ux = u % width;
+            uy = u / width;
+            for (int dir = 0; dir < dirCount; dir++) {
+                vx = ux + DX[dir];
+                vy = uy + DY[dir];
+                if (vx < 0 || vy < 0 || vx >= width || vy >= height)
+                    continue;
+                v = vx + vy * width;
+                if ((state[v] & (TOUCHED | PROTECTED | CLOSED)) != 0)
+                    continue;
+                d = old + ((euclid && dir >= 4) ? root2 : 1.0) * costMap[vx][vy];
+                if (Math.abs(gradient[v] - d) <= 1e-9 * Math.abs(d)) {
+                    state[v] |= TOUCHED;
+                    touched[touchedCount++] = v;
+                }
+            }
+        }
+        // when most of the map was invalidated (such as when the only goal moves), a fresh flood is cheaper
+        if (touchedCount > gradient.length >>> 2)
+            return refill(gradientMap, costMap);
+        // then give each invalidated cell the best distance its neighbors can offer
+        double lowest = DijkstraMap.FLOOR;
+        for (k = 0; k < touchedCount; k++) {
+            u = touched[k];
+            if (closed(u))
+                continue;
+            if ((state[u] & PROTECTED) != 0)
+                best = goalValues[u];
+            else {
+                best = DijkstraMap.FLOOR;
+                ux = u % width;
+                uy = u / width;
+                for (int dir = 0; dir < dirCount; dir++) {
+                    vx = ux + DX[dir];
+                    vy = uy + DY[dir];
+                    if (vx < 0 || vy < 0 || vx >= width || vy >= height)
+                        continue;
+                    v = vx + vy * width;
+                    if (closed(v) || gradient[v] >= DijkstraMap.FLOOR)
+                        continue;
+                    d = gradient[v] + ((euclid && dir >= 4) ? root2 : 1.0) * costMap[ux][uy];
+                    if (d < best)
+                        best = d;
+                }
+            }
+            gradient[u] = best;
+            if (best < lowest)
+                lowest = best;
+        }
+        // finally, let any improvements spread outward, remembering which cells were changed
+        startQueue(incrementalMeasurement, lowest);
+        for (k = 0; k < touchedCount; k++) {
+            u = touched[k];
+            if (gradient[u] < DijkstraMap.FLOOR)
+                enqueue(u);
+        }
+        flood(costMap, 0, true);
+        for (k = 0; k < touchedCount; k++) {
+            u = touched[k];
+            state[u] &= ~TOUCHED;
+            store(gradientMap, u, u % width, u / width);
+        }
+        return touchedCount;
+    }
+
+    /**
+     * Recalculates every remembered distance from the goals, for when repair() would need to touch most of the map.
+     */
+    private int refill(double[][] gradientMap, double[][] costMap) {
+        for (int k = 0; k < touchedCount; k++) {
+            state[touched[k]] &= ~TOUCHED;
+        }
+        double lowest = DijkstraMap.FLOOR;
+        int i;
+        for (i = 0; i < gradient.length; i++) {
+            if (closed(i))
+                continue;
+            if ((state[i] & PROTECTED) != 0) {
+                gradient[i] = goalValues[i];
+                if (gradient[i] < lowest)
+                    lowest = gradient[i];
+            } else
+                gradient[i] = DijkstraMap.FLOOR;
+        }
+        startQueue(incrementalMeasurement, lowest);
+        for (i = 0; i < gradient.length; i++) {
+            if ((state[i] & PROTECTED) != 0)
+                enqueue(i);
+        }
+        flood(costMap, 0, false);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0, idx = x; y < height; y++, idx += width) {
+                store(gradientMap, idx, x, y);
+            }
+        }
+        return gradient.length;
+    }
+
+    private static final double root2 = Math.sqrt(2.0);
+    // same order as Direction.OUTWARDS, so the first four are Direction.CARDINALS
+    private static final int[] DX = {0, 0, -1, 1, -1, 1, -1, 1}, DY = {-1, 1, 0, 0, -1, -1, 1, 1};
+
+    private boolean closed(int i) {
+        return (state[i] & (CLOSED | PROTECTED)) == CLOSED;
+    }
+
+    /**
+     * Writes one remembered distance to gradientMap, using DARK for unreached cells and leaving closed cells alone
+     * unless they still look like floor.
+     */
+    private void store(double[][] gradientMap, int i, int x, int y) {
+        if (!closed(i))
+            gradientMap[x][y] = (gradient[i] >= DijkstraMap.FLOOR) ? DijkstraMap.DARK : gradient[i];
+        else if (gradientMap[x][y] <= DijkstraMap.FLOOR)
+            gradientMap[x][y] = DijkstraMap.DARK;
+    }
+
+    private void markDirty(int i) {
+        if ((state[i] & DIRTY) == 0) {
+            state[i] |= DIRTY;
+            dirty[dirtyCount++] = i;
+        }
+    }
+
+    /**
+     * Copies gradientMap into gradient, closing walls (and, for large creatures, the cells that would put part of the
+     * creature in a wall), and notes the range of costs for startQueue(). If onlyGoals is true, every cell that isn't
+     * protected or closed is reset to FLOOR.
+     */
+    private void load(double[][] gradientMap, double[][] costMap, int size, boolean onlyGoals) {
+        double g, c;
+        minCost = Double.POSITIVE_INFINITY;
+        maxCost = 0.0;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0, idx = x; y < height; y++, idx += width) {
+                g = gradientMap[x][y];
+                if (g > DijkstraMap.FLOOR) {
+                    state[idx] |= CLOSED;
+                    if (size > 1 && g == DijkstraMap.WALL) {
+                        for (int dx = 0; dx < size && x - dx >= 0; dx++) {
+                            for (int dy = 0; dy < size && y - dy >= 0; dy++) {
+                                if (gradientMap[x - dx][y - dy] <= DijkstraMap.FLOOR)
+                                    block(x - dx, y - dy);
+                            }
+                        }
+                    }
+                } else {
+                    c = costMap[x][y];
+                    if (c < minCost) minCost = c;
+                    if (c > maxCost) maxCost = c;
+                }
+                if (onlyGoals && (state[idx] & PROTECTED) == 0)
+                    g = (g > DijkstraMap.FLOOR) ? g : DijkstraMap.FLOOR;
+                gradient[idx] = g;
+            }
+        }
+    }
+
+    /**
+     * Empties the bucket queue and sizes its buckets for the costs seen by load(), with the first bucket at lowest.
+     */
+    private void startQueue(DijkstraMap.Measurement measurement, double lowest) {
+        double maxStep = (measurement == DijkstraMap.Measurement.EUCLIDEAN) ? maxCost * root2 : maxCost;
+        if (maxStep <= 0.0)
+            maxStep = 1.0;
+        if (minCost > 0.0 && maxStep / minCost <= BUCKETS) {
+            bucketWidth = minCost;
+            bucketCount = (int) Math.ceil(maxStep / minCost) + 2;
+        } else {
+            bucketWidth = maxStep / BUCKETS;
+            bucketCount = BUCKETS + 2;
+        }
+        Arrays.fill(heads, 0, bucketCount, -1);
+        floodMeasurement = measurement;
+        base = lowest;
+        current = 0L;
+        queued = 0;
+    }
+
+    /**
+     * Runs the bucket queue until it is empty, lowering the distances of neighbors of each cell taken from it. If
+     * track is true, each cell that gets a new distance is added to the touched list.
+     */
+    private int flood(double[][] costMap, int limit, boolean track) {
+        boolean euclid = floodMeasurement == DijkstraMap.Measurement.EUCLIDEAN;
+        int dirCount = (floodMeasurement == DijkstraMap.Measurement.MANHATTAN) ? 4 : 8;
+        int assigned = 0, u, ux, uy, vx, vy, v, s;
+        double d;
+        while (queued > 0) {
+            s = (int) (current % bucketCount);
+            while ((u = heads[s]) >= 0) {
+                unlink(u);
+                if (limit > 0 && steps[u] >= limit)
+                    continue;
+                ux = u % width;
+                uy = u / width;
+                for (int dir = 0; dir < dirCount; dir++) {
+                    vx = ux + DX[dir];
+                    vy = uy + DY[dir];
+                    if (vx < 0 || vy < 0 || vx >= width || vy >= height)
+                        continue;
+                    v = vx + vy * width;
+                    if (closed(v))
+                        continue;
+                    d = gradient[u] + ((euclid && dir >= 4) ? root2 : 1.0) * costMap[vx][vy];
+                    if (d < gradient[v]) {
+                        gradient[v] = d;
+                        steps[v] = steps[u] + 1;
+                        ++assigned;
+                        if (track && (state[v] & TOUCHED) == 0) {
+                            state[v] |= TOUCHED;
+                            touched[touchedCount++] = v;
+                        }
+                        enqueue(v);
+                    }
+                }
+            }
+            current++;
+        }
+        return assigned;
+    }
+
+    /**
+     * Checks that a creature with the given size, with its minimum-x, minimum-y cell at index i, can stand there.
+     * Goals always count as fitting, since the creature is trying to reach them regardless.
+     */
+    private boolean fits(int i, int size) {
+        if (size <= 1 || (state[i] & PROTECTED) != 0)
+            return true;
+        int x = i % width, y = i / width;
+        if (x + size > width || y + size > height)
+            return false;
+        for (int dy = 0, row = i; dy < size; dy++, row += width) {
+            for (int dx = 0; dx < size; dx++) {
+                if (closed(row + dx))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    private void enqueue(int i) {
+        long b = (long) ((gradient[i] - base) / bucketWidth);
+        if (b < current)
+            b = current;
+        int s = (int) (b % bucketCount);
+        if ((state[i] & QUEUED) != 0) {
+            if (bucket[i] == s)
+                return;
+            unlink(i);
+        }
+        state[i] |= QUEUED;
+        bucket[i] = s;
+        prev[i] = -1;
+        next[i] = heads[s];
+        if (heads[s] >= 0)
+            prev[heads[s]] = i;
+        heads[s] = i;
+        ++queued;
+    }
+
+    private void unlink(int i) {
+        if (prev[i] >= 0)
+            next[prev[i]] = next[i];
+        else
+            heads[bucket[i]] = next[i];
+        if (next[i] >= 0)
+            prev[next[i]] = prev[i];
+        state[i] &= ~QUEUED;
+        --queued;
+    }
+}
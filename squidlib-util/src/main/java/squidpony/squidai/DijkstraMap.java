@@ -3,6 +3,7 @@ package squidpony.squidai;
 import squidpony.squidgrid.Direction;
 import squidpony.squidgrid.LOS;
 import squidpony.squidmath.Coord;
+import squidpony.squidmath.IntSet;
 import squidpony.squidmath.LightRNG;
 import squidpony.squidmath.RNG;
 
@@ -116,6 +117,17 @@ public class DijkstraMap
     public Coord[][] targetMap;
 
 
+    /**
+     * When true, scan(), partialScan(), and the find*Path methods flood the map using a DijkstraFrontier, which works
+     * on int indices and primitive arrays instead of LinkedHashMaps of Coord keys, and reuses its buffers between
+     * calls. The resulting gradientMap is the same as the default engine's for typical maps, and may have slightly
+     * lower (more accurate) values when costMap varies a lot between neighboring cells. Defaults to false.
+     */
+    public boolean frontierScan = false;
+    private DijkstraFrontier frontier;
+    private Measurement repairMeasurement;
+    private LinkedHashSet<Coord> repairImpassable = new LinkedHashSet<Coord>();
+
     private boolean initialized = false;
 
 
@@ -303,6 +315,7 @@ public class DijkstraMap
             System.arraycopy(level[x], 0, physicalMap[x],0, height);
             Arrays.fill(costMap[x], 1.0);
         }
+        endRepair();
         initialized = true;
         return this;
     }
@@ -329,6 +342,7 @@ public class DijkstraMap
                 physicalMap[x][y] = t;
             }
         }
+        endRepair();
         initialized = true;
         return this;
     }
@@ -357,6 +371,7 @@ public class DijkstraMap
                 physicalMap[x][y] = t;
             }
         }
+        endRepair();
         initialized = true;
         return this;
     }
@@ -371,6 +386,7 @@ public class DijkstraMap
      */
     public DijkstraMap initializeCost(final char[][] level) {
         if(!initialized) throw new IllegalStateException("DijkstraMap must be initialized first!");
+        endRepair();
         for (int x = 0; x < width; x++) {
             for (int y = 0; y < height; y++) {
                 costMap[x][y] = (level[x][y] == '#') ? WALL : 1.0;
@@ -392,6 +408,7 @@ public class DijkstraMap
      */
     public DijkstraMap initializeCost(final char[][] level, char alternateWall) {
         if(!initialized) throw new IllegalStateException("DijkstraMap must be initialized first!");
+        endRepair();
         for (int x = 0; x < width; x++) {
             for (int y = 0; y < height; y++) {
                 costMap[x][y] = (level[x][y] == alternateWall) ? WALL : 1.0;
@@ -413,6 +430,7 @@ public class DijkstraMap
      */
     public DijkstraMap initializeCost(final double[][] costs) {
         if(!initialized) throw new IllegalStateException("DijkstraMap must be initialized first!");
+        endRepair();
         costMap = new double[width][height];
         for (int x = 0; x < width; x++) {
             System.arraycopy(costs[x], 0, costMap[x], 0, height);
@@ -421,10 +439,12 @@ public class DijkstraMap
     }
 
     /**
-     * Resets the gradientMap to its original value from physicalMap.
+     * Resets the gradientMap to its original value from physicalMap. This also means the next call to repairScan()
+     * will have to do a full scan.
      */
     public void resetMap() {
         if (!initialized) return;
+        endRepair();
         for (int x = 0; x < width; x++) {
             for (int y = 0; y < height; y++) {
                 gradientMap[x][y] = physicalMap[x][y];
@@ -470,6 +490,34 @@ public class DijkstraMap
         }
 
         goals.put(Coord.get(x, y), GOAL);
+        if(frontier != null)
+            frontier.setGoal(x, y, GOAL);
+    }
+
+    /**
+     * Removes a goal that was set with setGoal(), if there is one at the given position, and undoes any changes to
+     * gradientMap made by having the goal present. This is mostly useful with repairScan(), since it lets one goal be
+     * moved without clearing the others.
+     * @param x
+     * @param y
+     */
+    public void removeGoal(int x, int y) {
+        if(!initialized) return;
+        if(goals.remove(Coord.get(x, y)) == null)
+            return;
+        if(frontier != null)
+            frontier.removeGoal(x, y);
+        resetCell(x, y);
+    }
+
+    /**
+     * Removes a goal that was set with setGoal(), if there is one at the given position, and undoes any changes to
+     * gradientMap made by having the goal present. This is mostly useful with repairScan(), since it lets one goal be
+     * moved without clearing the others.
+     * @param pt
+     */
+    public void removeGoal(Coord pt) {
+        removeGoal(pt.x, pt.y);
     }
 
     /**
@@ -483,6 +531,8 @@ public class DijkstraMap
         }
 
         goals.put(pt, GOAL);
+        if(frontier != null)
+            frontier.setGoal(pt.x, pt.y, GOAL);
     }
     /**
      * Marks a cell's cost for pathfinding as cost, unless the cell is a wall or unreachable area (then it always sets
@@ -491,12 +541,7 @@ public class DijkstraMap
      * @param cost
      */
     public void setCost(Coord pt, double cost) {
-        if(!initialized) return;
-        if (physicalMap[pt.x][pt.y] > FLOOR) {
-            costMap[pt.x][pt.y] = WALL;
-            return;
-        }
-        costMap[pt.x][pt.y] = cost;
+        setCost(pt.x, pt.y, cost);
     }
     /**
      * Marks a cell's cost for pathfinding as cost, unless the cell is a wall or unreachable area (then it always sets
@@ -512,6 +557,8 @@ public class DijkstraMap
             return;
         }
         costMap[x][y] = cost;
+        if(frontier != null)
+            frontier.costChanged(x, y);
     }
 
     /**
@@ -522,6 +569,8 @@ public class DijkstraMap
     public void setOccupied(int x, int y) {
         if(!initialized) return;
         gradientMap[x][y] = WALL;
+        if(frontier != null)
+            frontier.setClosed(x, y, true);
     }
 
     /**
@@ -532,6 +581,10 @@ public class DijkstraMap
     public void resetCell(int x, int y) {
         if(!initialized) return;
         gradientMap[x][y] = physicalMap[x][y];
+        if(frontier != null && frontier.isRepairing()) {
+            frontier.setClosed(x, y, physicalMap[x][y] > FLOOR || repairImpassable.contains(Coord.get(x, y)));
+            frontier.costChanged(x, y);
+        }
     }
 
     /**
@@ -539,8 +592,7 @@ public class DijkstraMap
      * @param pt
      */
     public void resetCell(Coord pt) {
-        if(!initialized) return;
-        gradientMap[pt.x][pt.y] = physicalMap[pt.x][pt.y];
+        resetCell(pt.x, pt.y);
     }
 
     /**
@@ -550,6 +602,8 @@ public class DijkstraMap
         if(!initialized)
             return;
         for (Map.Entry<Coord, Double> entry : goals.entrySet()) {
+            if(frontier != null)
+                frontier.removeGoal(entry.getKey().x, entry.getKey().y);
             resetCell(entry.getKey());
         }
         goals.clear();
@@ -582,6 +636,11 @@ public class DijkstraMap
      */
     public double[][] scan(Set<Coord> impassable) {
         if(!initialized) return null;
+        endRepair();
+        if(frontierScan) {
+            frontierScan(impassable, 0, 1);
+            return cloneGradient();
+        }
         if(impassable == null)
             impassable = new LinkedHashSet<Coord>();
         LinkedHashMap<Coord, Double> blocking = new LinkedHashMap<Coord, Double>(impassable.size());
@@ -653,6 +712,73 @@ public class DijkstraMap
         return gradientClone;
     }
 
+    /**
+     * Recalculate the Dijkstra map like scan(), but also remember the goals, impassable cells, and distances so that
+     * later calls to repairScan() only need to recalculate the parts of the map affected by changes. This always uses
+     * the primitive-array engine described in frontierScan, and only goals (not other values already present in
+     * gradientMap) are used as starting points. Unlike scan(), this returns gradientMap itself, not a copy.
+     * <br>
+     * After calling this, changes made with setGoal(), removeGoal(), clearGoals(), setCost(), setOccupied(), and
+     * resetCell() are tracked until the next repairScan(). Calling resetMap(), initialize(), initializeCost(), or any
+     * scan method other than repairScan() discards the tracked state, and the next repairScan() will do a full scan.
+     *
+     * @param impassable A Set of Position keys representing the locations of enemies or other moving obstacles to a
+     *                   path that cannot be moved through; this can be null if there are no such obstacles.
+     * @return gradientMap, after it has been recalculated
+     */
+    public double[][] incrementalScan(Set<Coord> impassable) {
+        if(!initialized) return null;
+        prepareFrontier();
+        for (Map.Entry<Coord, Double> entry : goals.entrySet()) {
+            Coord g = entry.getKey();
+            gradientMap[g.x][g.y] = entry.getValue();
+            frontier.protect(g.x, g.y);
+        }
+        repairImpassable.clear();
+        if(impassable != null) {
+            repairImpassable.addAll(impassable);
+            for (Coord pt : impassable) {
+                frontier.block(pt.x, pt.y);
+            }
+        }
+        mappedCount = goals.size() + frontier.scanIncremental(gradientMap, costMap, measurement);
+        repairMeasurement = measurement;
+        return gradientMap;
+    }
+
+    /**
+     * Brings gradientMap up to date after goals, costs, or occupied cells have changed since the last incrementalScan()
+     * or repairScan(), only recalculating cells whose distance could have been affected. When one goal moves by a cell
+     * or a door opens, this takes time proportional to the area whose distances actually change, instead of time
+     * proportional to the whole map like scan(). If there was no previous incrementalScan(), or if its results were
+     * discarded (see incrementalScan()) or measurement has changed since, this simply calls incrementalScan().
+     * The impassable Set is compared with the one given last time, and only cells that were added or removed count as
+     * changes. Like incrementalScan(), this returns gradientMap itself, not a copy.
+     *
+     * @param impassable A Set of Position keys representing the locations of enemies or other moving obstacles to a
+     *                   path that cannot be moved through; this can be null if there are no such obstacles.
+     * @return gradientMap, after it has been updated
+     */
+    public double[][] repairScan(Set<Coord> impassable) {
+        if(!initialized) return null;
+        if(frontier == null || !frontier.isRepairing() || measurement != repairMeasurement)
+            return incrementalScan(impassable);
+        if(impassable == null)
+            impassable = Collections.emptySet();
+        for (Coord pt : repairImpassable) {
+            if(!impassable.contains(pt))
+                frontier.setClosed(pt.x, pt.y, physicalMap[pt.x][pt.y] > FLOOR || gradientMap[pt.x][pt.y] == WALL);
+        }
+        for (Coord pt : impassable) {
+            if(!repairImpassable.contains(pt))
+                frontier.setClosed(pt.x, pt.y, true);
+        }
+        repairImpassable.clear();
+        repairImpassable.addAll(impassable);
+        mappedCount = goals.size() + frontier.repair(gradientMap, costMap);
+        return gradientMap;
+    }
+
     /**
      * Recalculate the Dijkstra map up to a limit and return it. Cells that were marked as goals with setGoal will have
      * a value of 0, the cells adjacent to goals will have a value of 1, and cells progressively further
@@ -669,6 +795,11 @@ public class DijkstraMap
      */
     public double[][] partialScan(int limit, Set<Coord> impassable) {
         if(!initialized) return null;
+        endRepair();
+        if(frontierScan) {
+            frontierScan(impassable, limit, 1);
+            return cloneGradient();
+        }
         if(impassable == null)
             impassable = new LinkedHashSet<Coord>();
         LinkedHashMap<Coord, Double> blocking = new LinkedHashMap<Coord, Double>(impassable.size());
@@ -765,6 +896,11 @@ public class DijkstraMap
      */
     public double[][] scan(Set<Coord> impassable, int size) {
         if(!initialized) return null;
+        endRepair();
+        if(frontierScan) {
+            frontierScan(impassable, 0, size);
+            return cloneGradient();
+        }
         if(impassable == null)
             impassable = new LinkedHashSet<Coord>();
         LinkedHashMap<Coord, Double> blocking = new LinkedHashMap<Coord, Double>(impassable.size());
@@ -888,6 +1024,97 @@ public class DijkstraMap
         return gradientClone;
     }
 
+    /**
+     * Runs the DijkstraFrontier engine over gradientMap, using the current goals and measurement.
+     * @param impassable cells that cannot be entered during this scan; may be null
+     * @param limit the maximum number of steps to take from a goal, or 0 for no limit
+     * @param size the side length of a square creature, or 1 for normal creatures
+     */
+    private void frontierScan(Set<Coord> impassable, int limit, int size) {
+        prepareFrontier();
+        for (Map.Entry<Coord, Double> entry : goals.entrySet()) {
+            Coord g = entry.getKey();
+            gradientMap[g.x][g.y] = entry.getValue();
+            frontier.protect(g.x, g.y);
+        }
+        if(impassable != null) {
+            for (Coord pt : impassable) {
+                frontier.block(pt.x, pt.y);
+                for (int x = 0; x < size && pt.x - x >= 0; x++) {
+                    for (int y = 0; y < size && pt.y - y >= 0; y++) {
+                        if(gradientMap[pt.x - x][pt.y - y] <= FLOOR)
+                            frontier.block(pt.x - x, pt.y - y);
+                    }
+                }
+            }
+        }
+        mappedCount = goals.size() + frontier.scan(gradientMap, costMap, measurement, limit, size);
+    }
+
+    /**
+     * Recalculates the Dijkstra map like scan(Set), but takes the impassable cells as ints made by Coord.encode().
+     * This always uses the frontier engine, whether or not frontierScan is set, so no Coord is created or boxed for
+     * the obstacles during the scan itself. It isn't an overload of scan() so that scan(null) stays unambiguous.
+     *
+     * @param impassable cells that cannot be entered, encoded with Coord.encode(); may be null
+     * @return A 2D double[width][height] using the width and height of what this knows about the physical map.
+     */
+    public double[][] scanEncoded(IntSet impassable) {
+        if(!initialized) return null;
+        endRepair();
+        frontierScan(impassable);
+        return cloneGradient();
+    }
+
+    private void frontierScan(IntSet impassable) {
+        prepareFrontier();
+        for (Map.Entry<Coord, Double> entry : goals.entrySet()) {
+            Coord g = entry.getKey();
+            gradientMap[g.x][g.y] = entry.getValue();
+            frontier.protect(g.x, g.y);
+        }
+        if(impassable != null) {
+            IntSet.Cursor cursor = impassable.cursor();
+            while (cursor.next()) {
+                frontier.block(Coord.decodeX(cursor.key), Coord.decodeY(cursor.key));
+            }
+        }
+        mappedCount = goals.size() + frontier.scan(gradientMap, costMap, measurement, 0, 1);
+    }
+
+    private void prepareFrontier() {
+        if(frontier == null || frontier.width != width || frontier.height != height)
+            frontier = new DijkstraFrontier(width, height);
+        else if(frontier.isRepairing())
+            frontier.clearRepair();
+    }
+
+    private void endRepair() {
+        if(frontier != null && frontier.isRepairing())
+            frontier.clearRepair();
+    }
+
+    /**
+     * Like scan(), but doesn't copy gradientMap when the frontier engine is used; the find*Path methods only need
+     * gradientMap itself.
+     */
+    private void scanGradient(Set<Coord> impassable, int size) {
+        if(frontierScan)
+            frontierScan(impassable, 0, size);
+        else if(size == 1)
+            scan(impassable);
+        else
+            scan(impassable, size);
+    }
+
+    private double[][] cloneGradient() {
+        double[][] gradientClone = new double[width][height];
+        for (int x = 0; x < width; x++) {
+            System.arraycopy(gradientMap[x], 0, gradientClone[x], 0, height);
+        }
+        return gradientClone;
+    }
+
     /**
      * Scans the dungeon using DijkstraMap.scan with the listed goals and start point, and returns a list
      * of Coord positions (using the current measurement) needed to get closer to the closest reachable
@@ -923,7 +1150,7 @@ public class DijkstraMap
         }
         if(goals.isEmpty())
             return path;
-        scan(impassable2);
+        scanGradient(impassable2, 1);
         Coord currentPos = start;
         double paidLength = 0.0;
         while (true) {
@@ -972,6 +1199,86 @@ public class DijkstraMap
         goals.clear();
         return path;
     }
+    /**
+     * Like findPath(int, Set, Set, Coord, Coord...), but every position is an int made by Coord.encode(), and the
+     * path is returned as an int[] of encoded positions instead of being stored in the path field. This always uses
+     * the frontier engine, and doesn't create a Coord for any step of the path.
+     *
+     * @param length the maximum distance to move, using the current costs
+     * @param impassable encoded positions of enemies and obstacles that cannot be moved through; may be null
+     * @param onlyPassable encoded positions that can be moved through but not stopped on; may be null
+     * @param start the encoded starting position
+     * @param targets the encoded goal positions
+     * @return the encoded positions to move through, in order; empty if no goal can be approached
+     */
+    public int[] findPath(int length, IntSet impassable, IntSet onlyPassable, int start, int... targets) {
+        if(!initialized) return null;
+        IntSet impassable2 = new IntSet();
+        if(impassable != null)
+            impassable2.addAll(impassable);
+        resetMap();
+        for (int i = 0; i < targets.length; i++) {
+            setGoal(Coord.decodeX(targets[i]), Coord.decodeY(targets[i]));
+        }
+        if(goals.isEmpty())
+            return new int[0];
+        endRepair();
+        frontierScan(impassable2);
+        int[] steps = new int[16];
+        int count = 0;
+        IntSet visited = new IntSet();
+        int currentX = Coord.decodeX(start), currentY = Coord.decodeY(start);
+        double paidLength = 0.0;
+        while (true) {
+            if (frustration > 500) {
+                count = 0;
+                break;
+            }
+            double best = gradientMap[currentX][currentY];
+            Direction[] dirs0 = rng.shuffle((measurement == Measurement.MANHATTAN)
+                    ? Direction.CARDINALS : Direction.OUTWARDS);
+            Direction[] dirs = Arrays.copyOf(dirs0, dirs0.length + 1);
+            dirs[dirs0.length] = Direction.NONE;
+            int choice = rng.nextInt(dirs.length);
+
+            for (int d = 0; d < dirs.length; d++) {
+                int x = currentX + dirs[d].deltaX, y = currentY + dirs[d].deltaY;
+                if (gradientMap[x][y] < best) {
+                    if (dirs[choice] == Direction.NONE || !visited.contains(Coord.encode(x, y))) {
+                        best = gradientMap[x][y];
+                        choice = d;
+                    }
+                }
+            }
+
+            if (best >= gradientMap[currentX][currentY] || physicalMap[currentX + dirs[choice].deltaX][currentY + dirs[choice].deltaY] > FLOOR) {
+                count = 0;
+                break;
+            }
+            currentX += dirs[choice].deltaX;
+            currentY += dirs[choice].deltaY;
+            int code = Coord.encode(currentX, currentY);
+            if(count == steps.length)
+                steps = Arrays.copyOf(steps, count << 1);
+            steps[count++] = code;
+            visited.add(code);
+            paidLength += costMap[currentX][currentY];
+            frustration++;
+            if (paidLength > length - 1.0) {
+                if (onlyPassable != null && onlyPassable.contains(code)) {
+                    impassable2.add(code);
+                    return findPath(length, impassable2, onlyPassable, start, targets);
+                }
+                break;
+            }
+            if(gradientMap[currentX][currentY] == 0)
+                break;
+        }
+        frustration = 0;
+        goals.clear();
+        return Arrays.copyOf(steps, count);
+    }
+
     /**
      * Scans the dungeon using DijkstraMap.scan with the listed goals and start point, and returns a list
      * of Coord positions (using the current measurement) needed to get closer to a goal, until preferredRange is
@@ -1028,7 +1335,7 @@ public class DijkstraMap
         {
             measurement = Measurement.CHEBYSHEV;
         }
-        scan(impassable2);
+        scanGradient(impassable2, 1);
         goals.clear();
 
         for(int x = 0; x < width; x++)
@@ -1053,7 +1360,7 @@ public class DijkstraMap
             }
         }
         measurement = mess;
-        scan(impassable2);
+        scanGradient(impassable2, 1);
 
         Coord currentPos = start;
         double paidLength = 0.0;
@@ -1162,7 +1469,7 @@ public class DijkstraMap
         {
             measurement = Measurement.CHEBYSHEV;
         }
-        scan(impassable2);
+        scanGradient(impassable2, 1);
         goals.clear();
 
         for(int x = 0; x < width; x++)
@@ -1188,7 +1495,7 @@ public class DijkstraMap
             }
         }
         measurement = mess;
-        scan(impassable2);
+        scanGradient(impassable2, 1);
 
         Coord currentPos = start;
         double paidLength = 0.0;
@@ -1335,7 +1642,7 @@ public class DijkstraMap
             measurement = Measurement.CHEBYSHEV;
         }
         */
-        scan(impassable2);
+        scanGradient(impassable2, 1);
         clearGoals();
 
         Coord tempPt = Coord.get(0, 0);
@@ -1371,7 +1678,7 @@ public class DijkstraMap
                     gradientMap[x][y] = FLOOR;
             }
         }
-        scan(impassable2);
+        scanGradient(impassable2, 1);
 
         double currentDistance = gradientMap[start.x][start.y];
         if(currentDistance <= moveLength)
@@ -1381,7 +1688,7 @@ public class DijkstraMap
 
             goals.clear();
             setGoal(start);
-            scan(impassable2);
+            scanGradient(impassable2, 1);
             goals.clear();
             gradientMap[start.x][start.y] = moveLength;
 
@@ -1395,7 +1702,7 @@ public class DijkstraMap
             {
                 gradientMap[g.x][g.y] = 0.0 - worthMap[g.x][g.y];
             }*/
-            scan(impassable2);
+            scanGradient(impassable2, 1);
 
         }
 
@@ -1519,14 +1826,14 @@ public class DijkstraMap
             if(goals.isEmpty())
                 return path;
 
-            scan(impassable2);
+            scanGradient(impassable2, 1);
 
             for (int x = 0; x < gradientMap.length; x++) {
                 for (int y = 0; y < gradientMap[x].length; y++) {
                     gradientMap[x][y] *= (gradientMap[x][y] >= FLOOR) ? 1.0 : (0.0 - preferLongerPaths);
                 }
             }
-            scan(impassable2);
+            scanGradient(impassable2, 1);
             cachedFleeMap = gradientMap.clone();
         }
         Coord currentPos = start;
@@ -1620,7 +1927,7 @@ public class DijkstraMap
         if(goals.isEmpty())
             return path;
 
-        scan(impassable2, size);
+        scanGradient(impassable2, size);
         Coord currentPos = start;
         double paidLength = 0.0;
         while (true) {
@@ -1729,7 +2036,7 @@ public class DijkstraMap
         {
             measurement = Measurement.CHEBYSHEV;
         }
-        scan(impassable2, size);
+        scanGradient(impassable2, size);
         goals.clear();
 
         for(int x = 0; x < width; x++)
@@ -1757,7 +2064,7 @@ public class DijkstraMap
             }
         }
         measurement = mess;
-        scan(impassable2, size);
+        scanGradient(impassable2, size);
 
         Coord currentPos = start;
         double paidLength = 0.0;
@@ -1870,7 +2177,7 @@ public class DijkstraMap
         {
             measurement = Measurement.CHEBYSHEV;
         }
-        scan(impassable2, size);
+        scanGradient(impassable2, size);
         goals.clear();
 
         for(int x = 0; x < width; x++)
@@ -1899,7 +2206,7 @@ public class DijkstraMap
             }
         }
         measurement = mess;
-        scan(impassable2, size);
+        scanGradient(impassable2, size);
 
         Coord currentPos = start;
         double paidLength = 0.0;
@@ -2011,14 +2318,14 @@ public class DijkstraMap
             if(goals.isEmpty())
                 return path;
 
-            scan(impassable2, size);
+            scanGradient(impassable2, size);
 
             for (int x = 0; x < gradientMap.length; x++) {
                 for (int y = 0; y < gradientMap[x].length; y++) {
                     gradientMap[x][y] *= (gradientMap[x][y] >= FLOOR) ? 1.0 : (0.0 - preferLongerPaths);
                 }
             }
-            scan(impassable2, size);
+            scanGradient(impassable2, size);
             cachedFleeMap = gradientMap.clone();
         }
         Coord currentPos = start;
@@ -1,9 +1,13 @@
 package squidpony.squidai;
 
 import squidpony.squidmath.Coord;
+import squidpony.squidmath.IntDoubleMap;
+import squidpony.squidmath.IntSet;
 
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -158,6 +162,44 @@ public class Technique {
         return aoe.idealLocations(priorityTargets, lesserTargets, requiredExclusions);
     }
 
+    /**
+     * Like idealLocations(Coord, Set, Set), but every position is an int made by Coord.encode(). The result keeps the
+     * same target points in the same order, each mapped to an IntSet of the encoded targets it affects, so locations
+     * can still be ranked by how many targets they hit. The AOE implementations still work with Coords internally, so
+     * this only saves the caller from building and reading Coord collections.
+     *
+     * YOU MUST CALL setMap() with the current map status at some point before using this method, and call it again if
+     * the map changes.
+     *
+     * @param user The encoded location of the user of this Technique
+     * @param targets encoded positions of desirable targets to include in the area of this Technique, as many as possible.
+     * @param requiredExclusions encoded positions this Technique will really try to avoid; may be null.
+     * @return LinkedHashMap of encoded target points to pass to apply, to IntSet of the encoded targets each affects.
+     */
+    public LinkedHashMap<Integer, IntSet> idealLocations(int user, IntSet targets, IntSet requiredExclusions) {
+        aoe.setOrigin(Coord.decode(user));
+        return encodeAll(aoe.idealLocations(decodeAll(targets), decodeAll(requiredExclusions)));
+    }
+
+    /**
+     * Like idealLocations(Coord, Set, Set, Set), but every position is an int made by Coord.encode(). The result keeps
+     * the same target points in the same order, each mapped to an IntSet of the encoded targets it affects.
+     *
+     * YOU MUST CALL setMap() with the current map status at some point before using this method, and call it again if
+     * the map changes.
+     *
+     * @param user The encoded location of the user of this Technique
+     * @param priorityTargets encoded positions of important targets to include in the area of this Technique.
+     * @param lesserTargets encoded positions of desirable targets to include if that doesn't exclude priorityTargets.
+     * @param requiredExclusions encoded positions this Technique will really try to avoid; may be null.
+     * @return LinkedHashMap of encoded target points to pass to apply, to IntSet of the encoded targets each affects.
+     */
+    public LinkedHashMap<Integer, IntSet> idealLocations(int user, IntSet priorityTargets, IntSet lesserTargets, IntSet requiredExclusions) {
+        aoe.setOrigin(Coord.decode(user));
+        return encodeAll(aoe.idealLocations(decodeAll(priorityTargets), decodeAll(lesserTargets),
+                decodeAll(requiredExclusions)));
+    }
+
     /**
      * This does one last validation of the location aimAt (checking that it is within the valid range for this
      * Technique) before getting the area affected by the AOE targeting that cell. It considers the origin of the AOE
@@ -179,4 +221,50 @@ public class Technique {
         aoe.shift(aimAt);
         return aoe.findArea();
     }
-}
\ No newline at end of file
+
+    /**
+     * Like apply(Coord, Coord), but with positions made by Coord.encode(), returning the affected cells as an
+     * IntDoubleMap of encoded positions to how strongly each is affected.
+     *
+     * YOU MUST CALL setMap() with the current map status at some point before using this method, and call it again if
+     * the map changes.
+     *
+     * @param user The encoded position of the Technique's user.
+     * @param aimAt An encoded target point typically obtained from idealLocations.
+     * @return an IntDoubleMap of encoded positions to values from 1.0 (fully affected) to 0.0 (unaffected).
+     */
+    public IntDoubleMap apply(int user, int aimAt)
+    {
+        LinkedHashMap<Coord, Double> area = apply(Coord.decode(user), Coord.decode(aimAt));
+        IntDoubleMap encoded = new IntDoubleMap(area.size());
+        for (Map.Entry<Coord, Double> entry : area.entrySet()) {
+            encoded.put(entry.getKey().encode(), entry.getValue());
+        }
+        return encoded;
+    }
+
+    private static Set<Coord> decodeAll(IntSet codes)
+    {
+        if(codes == null)
+            return null;
+        LinkedHashSet<Coord> coords = new LinkedHashSet<Coord>(codes.size() * 2);
+        IntSet.Cursor cursor = codes.cursor();
+        while (cursor.next()) {
+            coords.add(Coord.decode(cursor.key));
+        }
+        return coords;
+    }
+
+    private static LinkedHashMap<Integer, IntSet> encodeAll(LinkedHashMap<Coord, ArrayList<Coord>> locations)
+    {
+        LinkedHashMap<Integer, IntSet> encoded = new LinkedHashMap<Integer, IntSet>(locations.size());
+        for (Map.Entry<Coord, ArrayList<Coord>> entry : locations.entrySet()) {
+            IntSet hit = new IntSet(entry.getValue().size());
+            for (Coord c : entry.getValue()) {
+                hit.add(c.encode());
+            }
+            encoded.put(entry.getKey().encode(), hit);
+        }
+        return encoded;
+    }
+}
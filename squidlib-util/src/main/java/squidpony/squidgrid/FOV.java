@@ -3,6 +3,7 @@ package squidpony.squidgrid;
 import squidpony.squidmath.Coord;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
@@ -33,6 +34,12 @@ import java.util.List;
  * All solvers perform bounds checking so solid borders in the map are not
  * required.
  *
+ * An FOV object must not be shared between threads. Every calculation writes
+ * to the saved light map, and the overloads that take a light buffer also
+ * remember that buffer, the area they lit in it, and a scratch array in
+ * fields, so that the next call can clear just that area. Give each thread its
+ * own FOV instead.
+ *
  * @author Eben Howard - http://squidpony.com - howard@squidpony.com
  */
 public class FOV {
@@ -67,6 +74,10 @@ public class FOV {
              */
             SHADOW = 5;
     private int type = SHADOW;
+    private double[][] lastLight;
+    private int lastMinX, lastMinY, lastMaxX, lastMaxY;
+    private boolean[][] nearScratch;
+    private double[][] lightScratch;
     private static final Direction[] ccw = new Direction[]
             {Direction.UP_RIGHT, Direction.UP_LEFT, Direction.DOWN_LEFT, Direction.DOWN_RIGHT, Direction.UP_RIGHT},
             ccw_full = new Direction[]{Direction.RIGHT, Direction.UP_RIGHT, Direction.UP, Direction.UP_LEFT,
@@ -142,6 +153,45 @@ public class FOV {
      * @return the computed light grid
      */
     public double[][] calculateFOV(double[][] resistanceMap, int startX, int startY, double radius, Radius radiusTechnique) {
+        int width = resistanceMap.length;
+        int height = resistanceMap[0].length;
+
+        double[][] lightMap = new double[width][height];
+        boolean[][] nearLight = (type == SHADOW) ? null : new boolean[width][height];
+        return castFOV(lightMap, nearLight, resistanceMap, startX, startY, radius, radiusTechnique);
+    }
+
+    /**
+     * Calculates the Field Of View for the provided map from the given x, y
+     * coordinates, writing the light map into the given buffer instead of
+     * allocating a new one. Values in light represent a percentage of fully lit.
+     *
+     * If light is the same buffer that was passed to the previous call to this
+     * method (or the conical overload) on this FOV object, only the area that
+     * call could have lit is cleared, so calling this repeatedly with one
+     * buffer per FOV object allocates nothing for SHADOW and only clears the
+     * bounding box of the radius instead of the whole map. Otherwise the whole
+     * buffer is cleared first. The buffer should not be modified by anything
+     * else between calls if only the touched area is to be cleared.
+     *
+     * @param resistanceMap the grid of cells to calculate on
+     * @param startX the horizontal component of the starting location
+     * @param startY the vertical component of the starting location
+     * @param radius the distance the light will extend to
+     * @param radiusTechnique provides a means to calculate the radius as desired
+     * @param light a double[][] with the same dimensions as resistanceMap; will be overwritten
+     * @return light, after being filled with the computed light grid
+     */
+    public double[][] calculateFOV(double[][] resistanceMap, int startX, int startY, double radius,
+                                   Radius radiusTechnique, double[][] light) {
+        boolean[][] nearLight = prepareBuffers(resistanceMap, startX, startY, radius, light);
+        castFOV(light, nearLight, resistanceMap, startX, startY, radius, radiusTechnique);
+        cleanNearLight(nearLight);
+        return light;
+    }
+
+    private double[][] castFOV(double[][] lightMap, boolean[][] nearLight, double[][] resistanceMap,
+                               int startX, int startY, double radius, Radius radiusTechnique) {
 
         double rad = Math.max(1, radius);
 
@@ -150,10 +200,8 @@ public class FOV {
         int width = resistanceMap.length;
         int height = resistanceMap[0].length;
 
-        double[][] lightMap = new double[width][height];
         lightMap[startX][startY] = 1;//make the starting space full power
 
-        boolean[][] nearLight = new boolean[width][height];
         switch (type) {
             case RIPPLE:
                 lightMap = doRippleFOV(lightMap, 2, startX, startY, startX, startY, decay, rad, resistanceMap, nearLight, radiusTechnique);
@@ -206,6 +254,41 @@ public class FOV {
      */
     public double[][] calculateFOV(double[][] resistanceMap, int startX, int startY, double radius,
                                    Radius radiusTechnique, double angle, double span) {
+        int width = resistanceMap.length;
+        int height = resistanceMap[0].length;
+
+        double[][] lightMap = new double[width][height];
+        boolean[][] nearLight = (type == SHADOW) ? null : new boolean[width][height];
+        return castFOV(lightMap, nearLight, resistanceMap, startX, startY, radius, radiusTechnique, angle, span);
+    }
+
+    /**
+     * Calculates the conical Field Of View for the provided map from the given
+     * x, y coordinates, writing the light map into the given buffer instead of
+     * allocating a new one. The buffer is cleared the same way as in
+     * {@link #calculateFOV(double[][], int, int, double, Radius, double[][])}.
+     *
+     * @param resistanceMap the grid of cells to calculate on
+     * @param startX the horizontal component of the starting location
+     * @param startY the vertical component of the starting location
+     * @param radius the distance the light will extend to
+     * @param radiusTechnique provides a means to calculate the radius as desired
+     * @param angle the angle in degrees that will be the center of the FOV cone, 0 points right
+     * @param span the angle in degrees that measures the full arc contained in the FOV cone
+     * @param light a double[][] with the same dimensions as resistanceMap; will be overwritten
+     * @return light, after being filled with the computed light grid
+     */
+    public double[][] calculateFOV(double[][] resistanceMap, int startX, int startY, double radius,
+                                   Radius radiusTechnique, double angle, double span, double[][] light) {
+        boolean[][] nearLight = prepareBuffers(resistanceMap, startX, startY, radius, light);
+        castFOV(light, nearLight, resistanceMap, startX, startY, radius, radiusTechnique, angle, span);
+        cleanNearLight(nearLight);
+        return light;
+    }
+
+    private double[][] castFOV(double[][] lightMap, boolean[][] nearLight, double[][] resistanceMap,
+                               int startX, int startY, double radius, Radius radiusTechnique,
+                               double angle, double span) {
 
         double rad = Math.max(1, radius);
 
@@ -216,10 +299,8 @@ public class FOV {
         int width = resistanceMap.length;
         int height = resistanceMap[0].length;
 
-        double[][] lightMap = new double[width][height];
         lightMap[startX][startY] = 1;//make the starting space full power
 
-        boolean[][] nearLight = new boolean[width][height];
         switch (type) {
             case RIPPLE:
                 lightMap = doRippleFOV(lightMap, 2, startX, startY, startX, startY, decay, rad, resistanceMap, nearLight, radiusTechnique, angle2, span2);
@@ -261,6 +342,185 @@ public class FOV {
     }
 
 
+    /**
+     * Calculates which cells are visible from the given x, y coordinates and
+     * stores only that, one bit per cell, instead of a light level. A cell is
+     * visible here exactly when calculateFOV() would give it a value greater
+     * than 0. For SHADOW this writes bits directly without any light map; other
+     * types calculate light into a buffer kept by this FOV object and convert it.
+     *
+     * The bits are laid out column by column to match x,y indexing: each x uses
+     * bitStride(height) longs, and cell x,y is bit (y &amp; 63) of the long at
+     * index x * bitStride(height) + (y &gt;&gt; 6). Bitsets from maps of the same
+     * size can be combined a word at a time with intersectVisibility(),
+     * unionVisibility(), and intersects().
+     *
+     * @param resistanceMap the grid of cells to calculate on
+     * @param startX the horizontal component of the starting location
+     * @param startY the vertical component of the starting location
+     * @param radius the distance the light will extend to
+     * @param radiusTechnique provides a means to calculate the radius as desired
+     * @param visible a long[] to reuse, which will be overwritten; if null or too small, a new array is allocated
+     * @return the bitset of visible cells; this is visible if it was large enough
+     */
+    public long[] calculateVisibility(double[][] resistanceMap, int startX, int startY, double radius,
+                                      Radius radiusTechnique, long[] visible) {
+        int width = resistanceMap.length;
+        int height = resistanceMap[0].length;
+        int stride = bitStride(height);
+        if (visible == null || visible.length < width * stride) {
+            visible = new long[width * stride];
+        } else {
+            Arrays.fill(visible, 0L);
+        }
+        if (type != SHADOW) {
+            if (lightScratch == null || lightScratch.length != width || lightScratch[0].length != height) {
+                lightScratch = new double[width][height];
+            }
+            calculateFOV(resistanceMap, startX, startY, radius, radiusTechnique, lightScratch);
+            for (int x = lastMinX; x <= lastMaxX; x++) {
+                for (int y = lastMinY; y <= lastMaxY; y++) {
+                    if (lightScratch[x][y] > 0) {
+                        visible[x * stride + (y >> 6)] |= 1L << y;
+                    }
+                }
+            }
+            return visible;
+        }
+        double rad = Math.max(1, radius);
+        double decay = 1.0 / rad;
+        if (rad > width + height) {
+            rad = width + height;
+        }
+        visible[startX * stride + (startY >> 6)] |= 1L << startY;
+        for (Direction d : Direction.DIAGONALS) {
+            shadowCastBits(1, 1.0, 0.0, 0, d.deltaX, d.deltaY, 0, rad, startX, startY, decay, width, height, stride,
+                    visible, resistanceMap, radiusTechnique);
+            shadowCastBits(1, 1.0, 0.0, d.deltaX, 0, 0, d.deltaY, rad, startX, startY, decay, width, height, stride,
+                    visible, resistanceMap, radiusTechnique);
+        }
+        return visible;
+    }
+
+    /**
+     * Gets how many longs each x position uses in a visibility bitset for a map with the given height.
+     * @param height the height of the map
+     * @return the number of longs per column
+     */
+    public static int bitStride(int height) {
+        return (height + 63) >>> 6;
+    }
+
+    /**
+     * Checks whether x,y is set in a bitset produced by calculateVisibility() or FOVCache.getVisibility().
+     * @param visible a visibility bitset
+     * @param height the height of the map the bitset was made for
+     * @param x the x position to check
+     * @param y the y position to check
+     * @return true if x,y is visible
+     */
+    public static boolean isVisible(long[] visible, int height, int x, int y) {
+        return (visible[x * bitStride(height) + (y >> 6)] & (1L << y)) != 0;
+    }
+
+    /**
+     * Stores the cells visible in both a and b into out, a word at a time. All three may be the same array.
+     * @param a a visibility bitset
+     * @param b a visibility bitset for a map of the same size as a
+     * @param out will be overwritten; if null, a new array is allocated
+     * @return out, holding the intersection of a and b
+     */
+    public static long[] intersectVisibility(long[] a, long[] b, long[] out) {
+        int len = Math.min(a.length, b.length);
+        if (out == null) {
+            out = new long[len];
+        }
+        for (int i = 0; i < len; i++) {
+            out[i] = a[i] & b[i];
+        }
+        return out;
+    }
+
+    /**
+     * Stores the cells visible in either a or b into out, a word at a time. All three may be the same array.
+     * @param a a visibility bitset
+     * @param b a visibility bitset for a map of the same size as a
+     * @param out will be overwritten; if null, a new array is allocated
+     * @return out, holding the union of a and b
+     */
+    public static long[] unionVisibility(long[] a, long[] b, long[] out) {
+        int len = Math.min(a.length, b.length);
+        if (out == null) {
+            out = new long[len];
+        }
+        for (int i = 0; i < len; i++) {
+            out[i] = a[i] | b[i];
+        }
+        return out;
+    }
+
+    /**
+     * Checks if any cell is visible in both a and b, without building their intersection.
+     * @param a a visibility bitset
+     * @param b a visibility bitset for a map of the same size as a
+     * @return true if a and b share at least one visible cell
+     */
+    public static boolean intersects(long[] a, long[] b) {
+        int len = Math.min(a.length, b.length);
+        for (int i = 0; i < len; i++) {
+            if ((a[i] & b[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Clears light where needed before a buffered calculation, records the area the calculation could light, and
+     * returns the scratch array RIPPLE types need, or null for SHADOW.
+     */
+    private boolean[][] prepareBuffers(double[][] resistanceMap, int startX, int startY, double radius,
+                                       double[][] light) {
+        int width = resistanceMap.length;
+        int height = resistanceMap[0].length;
+        if (light == lastLight && light.length == width && light[0].length == height) {
+            for (int x = lastMinX; x <= lastMaxX; x++) {
+                Arrays.fill(light[x], lastMinY, lastMaxY + 1, 0.0);
+            }
+        } else {
+            for (int x = 0; x < width; x++) {
+                Arrays.fill(light[x], 0.0);
+            }
+        }
+        double rad = Math.max(1, radius);
+        // one cell of slack covers the starting tile allowance in ripple FOV
+        int reach = (rad >= width + height) ? width + height : (int) Math.ceil(rad) + 1;
+        lastLight = light;
+        lastMinX = Math.max(0, startX - reach);
+        lastMaxX = Math.min(width - 1, startX + reach);
+        lastMinY = Math.max(0, startY - reach);
+        lastMaxY = Math.min(height - 1, startY + reach);
+        if (type == SHADOW) {
+            return null;
+        }
+        if (nearScratch == null || nearScratch.length != width || nearScratch[0].length != height) {
+            nearScratch = new boolean[width][height];
+        }
+        return nearScratch;
+    }
+
+    /**
+     * Resets the part of the RIPPLE scratch array that the last buffered calculation could have touched.
+     */
+    private void cleanNearLight(boolean[][] nearLight) {
+        if (nearLight == null) {
+            return;
+        }
+        for (int x = lastMinX; x <= lastMaxX; x++) {
+            Arrays.fill(nearLight[x], lastMinY, lastMaxY + 1, false);
+        }
+    }
+
     private double[][] doRippleFOV(double[][] lightMap, int ripple, int x, int y, int startx, int starty, double decay, double radius, double[][] map, boolean[][] indirect, Radius radiusStrategy) {
         Deque<Coord> dq = new LinkedList<>();
         int width = lightMap.length;
@@ -358,7 +618,7 @@ public class FOV {
         if (neighbors.isEmpty()) {
             return 0;
         }
-        neighbors = neighbors.subList(0, rippleNeighbors);
+        neighbors = neighbors.subList(0, Math.min(rippleNeighbors, neighbors.size()));
 /*
         while (neighbors.size() > rippleNeighbors) {
             Coord p = neighbors.remove(0);
@@ -441,6 +701,53 @@ public class FOV {
         }
         return lightMap;
     }
+    private void shadowCastBits(int row, double start, double end, int xx, int xy, int yx, int yy,
+                                double radius, int startx, int starty, double decay, int width, int height,
+                                int stride, long[] visible, double[][] map, Radius radiusStrategy) {
+        double newStart = 0;
+        if (start < end) {
+            return;
+        }
+
+        boolean blocked = false;
+        for (int distance = row; distance <= radius && !blocked; distance++) {
+            int deltaY = -distance;
+            for (int deltaX = -distance; deltaX <= 0; deltaX++) {
+                int currentX = startx + deltaX * xx + deltaY * xy;
+                int currentY = starty + deltaX * yx + deltaY * yy;
+                double leftSlope = (deltaX - 0.5f) / (deltaY + 0.5f);
+                double rightSlope = (deltaX + 0.5f) / (deltaY - 0.5f);
+
+                if (!(currentX >= 0 && currentY >= 0 && currentX < width && currentY < height) || start < rightSlope) {
+                    continue;
+                } else if (end > leftSlope) {
+                    break;
+                }
+
+                //check if it's within the lightable area and mark it if it would have any light
+                double dist = radiusStrategy.radius(deltaX, deltaY);
+                if (dist <= radius && 1 - decay * dist > 0) {
+                    visible[currentX * stride + (currentY >> 6)] |= 1L << currentY;
+                }
+
+                if (blocked) { //previous cell was a blocking one
+                    if (map[currentX][currentY] >= 1) {//hit a wall
+                        newStart = rightSlope;
+                    } else {
+                        blocked = false;
+                        start = newStart;
+                    }
+                } else {
+                    if (map[currentX][currentY] >= 1 && distance < radius) {//hit a wall within sight line
+                        blocked = true;
+                        shadowCastBits(distance + 1, start, leftSlope, xx, xy, yx, yy, radius, startx, starty,
+                                decay, width, height, stride, visible, map, radiusStrategy);
+                        newStart = rightSlope;
+                    }
+                }
+            }
+        }
+    }
     private double[][] shadowCastLimited(int row, double start, double end, int xx, int xy, int yx, int yy,
                                          double radius, int startx, int starty, double decay, double[][] lightMap,
                                          double[][] map, Radius radiusStrategy, double angle, double span) {
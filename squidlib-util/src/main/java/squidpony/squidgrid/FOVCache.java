@@ -5,12 +5,17 @@ import squidpony.squidmath.Coord;
 import squidpony.squidmath.ShortVLA;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import static squidpony.squidmath.CoordPacker.*;
 
@@ -26,47 +31,55 @@ public class FOVCache {
 
     protected short[][][] cache;
     protected short[][] losCache;
-    protected boolean complete;
+    protected short[][] compactCache;
+    protected boolean complete, compact;
     protected FOV fov;
     protected short[][] ALL_WALLS;
     private double[][] atan2Cache, directionAngles;
     private short[][] distanceCache;
     private Coord[][] waves;
     protected final int NUM_THREADS;
+    protected ExecutorService updateExecutor;
+    private int[] scheduled, completed;
+    private final Object updateLock = new Object();
+    protected LinkedHashMap<Integer, Object> lazyCache;
+    protected int lazyEntryLimit;
+    protected long lazyByteLimit, lazyBytes;
+    private int lazyEpoch;
     private static final double HALF_PI = Math.PI * 0.5, QUARTER_PI = Math.PI * 0.25125,
             SLIVER_PI = Math.PI * 0.05, PI2 = Math.PI * 2;
     public FOVCache(char[][] map, int maxRadius, Radius radiusKind)
     {
-        if(map == null || map.length == 0)
-            throw new UnsupportedOperationException("The map used by FOVCache must not be null or empty");
-        NUM_THREADS = 8;
-        width = map.length;
-        height = map[0].length;
-        if(width > 256 || height > 256)
-            throw new UnsupportedOperationException("Map size is too large to efficiently cache, aborting");
-        if(maxRadius <= 0 || maxRadius >= 63)
-            throw new UnsupportedOperationException("FOV radius is incorrect. Must be 0 < maxRadius < 63");
-        this.fov = new FOV(FOV.SHADOW);
-        resMap = DungeonUtility.generateResistances(map);
-        this.maxRadius = maxRadius;
-        this.radiusKind = radiusKind;
-        cache = new short[width * height][][];
-        losCache = new short[width * height][];
-        ALL_WALLS = new short[maxRadius][];
-        for (int i = 0; i < maxRadius; i++) {
-            ALL_WALLS[i] = ALL_WALL;
-        }
-        preloadMeasurements();
-        complete = false;
+        this(map, maxRadius, radiusKind, 8, false);
     }
     public FOVCache(char[][] map, int maxRadius, Radius radiusKind, int threadCount)
+    {
+        this(map, maxRadius, radiusKind, threadCount, false);
+    }
+
+    /**
+     * Creates a FOVCache that may use compact storage. In compact mode, each cell's FOV is stored as a single sorted
+     * short[] of Hilbert Curve boundaries inside a window of (2 * maxRadius + 1) by (2 * maxRadius + 1) cells centered
+     * on the viewer, instead of one multi-packed region per radius covering the whole map. The per-radius regions are
+     * redundant because the distance of any cell from the viewer is already known from its position in the window, so
+     * this uses roughly an order of magnitude less memory, and because positions are relative to the viewer, the map
+     * is no longer limited to 256x256; maps of 512x512 or larger can be cached. Queries with isCellVisible() use a
+     * binary search over the boundaries, so they take O(log n) time in the number of runs. In compact mode,
+     * getCacheEntry() is not available; use getCompactEntry() or unpackCompactEntry() instead.
+     * @param map a char[][] as produced by DungeonGenerator or similar
+     * @param maxRadius the largest vision radius that will be queried; must be between 1 and 62, inclusive
+     * @param radiusKind the kind of radius to use, such as Radius.CIRCLE or Radius.SQUARE
+     * @param threadCount how many threads cacheAll() should use
+     * @param compact true to use compact storage and allow maps larger than 256x256; false to use multi-packed storage
+     */
+    public FOVCache(char[][] map, int maxRadius, Radius radiusKind, int threadCount, boolean compact)
     {
         if(map == null || map.length == 0)
             throw new UnsupportedOperationException("The map used by FOVCache must not be null or empty");
         NUM_THREADS = threadCount;
         width = map.length;
         height = map[0].length;
-        if(width > 256 || height > 256)
+        if(!compact && (width > 256 || height > 256))
             throw new UnsupportedOperationException("Map size is too large to efficiently cache, aborting");
         if(maxRadius <= 0 || maxRadius >= 63)
             throw new UnsupportedOperationException("FOV radius is incorrect. Must be 0 < maxRadius < 63");
@@ -74,8 +87,13 @@ public class FOVCache {
         resMap = DungeonUtility.generateResistances(map);
         this.maxRadius = maxRadius;
         this.radiusKind = radiusKind;
-        cache = new short[width * height][][];
-        losCache = new short[width * height][];
+        this.compact = compact;
+        if(compact)
+            compactCache = new short[width * height][];
+        else {
+            cache = new short[width * height][][];
+            losCache = new short[width * height][];
+        }
         ALL_WALLS = new short[maxRadius][];
         for (int i = 0; i < maxRadius; i++) {
             ALL_WALLS[i] = ALL_WALL;
@@ -154,7 +172,10 @@ public class FOVCache {
      */
     protected long storeCellFOV(int index) {
         long startTime = System.currentTimeMillis();
-        cache[index] = calculateWaveFOV(index % width, index / width);
+        if(compact)
+            compactCache[index] = calculateCompactFOV(index % width, index / width);
+        else
+            cache[index] = calculateWaveFOV(index % width, index / width);
         //cache[index] = calculateCellFOV(index % width, index / width);
         return System.currentTimeMillis() - startTime;
     }
@@ -282,22 +303,273 @@ public class FOVCache {
         }
         return packMulti(waveFOV(viewerX, viewerY), maxRadius + 1);
     }
+
+    /**
+     * Calculates FOV for the given viewer's X and Y as a center, and returns it in the compact form used when this
+     * FOVCache was constructed with compact set to true. The result is a sorted short[] of positions along the Hilbert
+     * Curve, inside a window of (2 * maxRadius + 1) by (2 * maxRadius + 1) cells with the viewer at its center, where
+     * visibility toggles between off and on; cells before the first boundary are not visible.
+     * @param viewerX an int less than width
+     * @param viewerY an int less than height
+     * @return a sorted short[] of Hilbert Curve boundaries between visible and non-visible runs in the viewer's window
+     */
+    public short[] calculateCompactFOV(int viewerX, int viewerY) {
+        if (viewerX < 0 || viewerY < 0 || viewerX >= width || viewerY >= height)
+            return ALL_WALL;
+        if (resMap[viewerX][viewerY] >= 1.0) {
+            return ALL_WALL;
+        }
+        int side = maxRadius * 2 + 1, windowLimit = side * side, i = 0;
+        byte[][] window = new byte[side][side];
+        waveFOV(viewerX, viewerY, window, viewerX - maxRadius, viewerY - maxRadius);
+        ShortVLA boundaries = new ShortVLA(32);
+        boolean on = false, current;
+        short x, y;
+        for (int ml = 0; ml < windowLimit; i++) {
+            x = hilbertX[i];
+            y = hilbertY[i];
+            if (x >= side || y >= side)
+                current = false;
+            else {
+                ml++;
+                current = window[x][y] > 0;
+            }
+            if (current != on) {
+                boundaries.add((short) i);
+                on = current;
+            }
+        }
+        if (on)
+            boundaries.add((short) i);
+        if (boundaries.size == 0)
+            return ALL_WALL;
+        return boundaries.shrink();
+    }
+
     public short[][] getCacheEntry(int x, int y)
     {
-        return cache[x + y * width];
+        if(compact)
+            throw new UnsupportedOperationException("Multi-packed entries are not stored in compact mode; " +
+                    "use getCompactEntry() or unpackCompactEntry()");
+        return (short[][]) fetchEntry(x + y * width);
+    }
+
+    /**
+     * Switches this FOVCache to computing entries on demand. Instead of needing cacheAll() to be called first,
+     * getCacheEntry(), getCompactEntry(), and isCellVisible() calculate the FOV for any viewer that hasn't been cached
+     * yet and remember it, forgetting the least recently used entries once either budget is exceeded. This avoids the
+     * startup cost of cacheAll() on large maps where only a small fraction of cells are ever used as viewers. Entries
+     * already stored by cacheAll() are still used and are not counted against the budgets. Calling this again changes
+     * the budgets and forgets all lazily computed entries.
+     * @param maxEntries the most viewers to remember at once; 0 or less means no limit on the count
+     * @param maxBytes the most memory, as estimated by memoryUsed(), that lazily computed entries may use; 0 or less
+     *                 means no limit on memory
+     */
+    public void setLazyBudget(int maxEntries, long maxBytes)
+    {
+        synchronized (updateLock) {
+            lazyEntryLimit = maxEntries;
+            lazyByteLimit = maxBytes;
+            lazyCache = new LinkedHashMap<Integer, Object>(64, 0.75f, true);
+            lazyBytes = 0;
+            lazyEpoch++;
+        }
+    }
+
+    /**
+     * Gets the entry for the viewer at index, which is a short[] in compact mode or a short[][] otherwise. If the
+     * entry has not been stored by cacheAll() and this FOVCache is lazy (see setLazyBudget()), it is looked up in the
+     * lazy cache, or calculated and added to it. Otherwise, this returns null for entries that are not cached yet.
+     * @param index an int that stores the x,y center of FOV as calculated by: x + y * width
+     * @return the entry for the viewer at index, or null if it isn't cached and this is not lazy
+     */
+    protected Object fetchEntry(int index)
+    {
+        Object entry = compact ? compactCache[index] : cache[index];
+        if(entry != null || lazyCache == null)
+            return entry;
+        int epoch;
+        synchronized (updateLock) {
+            entry = lazyCache.get(index);
+            if(entry != null)
+                return entry;
+            epoch = lazyEpoch;
+        }
+        entry = compact
+                ? calculateCompactFOV(index % width, index / width)
+                : calculateWaveFOV(index % width, index / width);
+        synchronized (updateLock) {
+            // a changeCell() or setLazyBudget() call while calculating means entry may be stale
+            if(epoch != lazyEpoch)
+                return entry;
+            Object old = lazyCache.put(index, entry);
+            if(old != null)
+                lazyBytes -= entryBytes(old);
+            lazyBytes += entryBytes(entry);
+            Iterator<Object> it = lazyCache.values().iterator();
+            while (lazyCache.size() > 1 && ((lazyEntryLimit > 0 && lazyCache.size() > lazyEntryLimit) ||
+                    (lazyByteLimit > 0 && lazyBytes > lazyByteLimit))) {
+                lazyBytes -= entryBytes(it.next());
+                it.remove();
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Estimates the memory used by a short[] or short[][] entry, in bytes, counting array headers and padding.
+     */
+    private static long entryBytes(Object entry)
+    {
+        if(entry instanceof short[])
+            return (((2 * ((short[]) entry).length + 12 - 1) / 8) + 1) * 8L;
+        short[][] multi = (short[][]) entry;
+        long ctr = 0;
+        for (int i = 0; i < multi.length; i++) {
+            ctr += (((2 * multi[i].length + 12 - 1) / 8) + 1) * 8L;
+        }
+        return (((ctr + 12 - 1) / 8) + 1) * 8;
+    }
+
+    /**
+     * Gets the compact entry for the given viewer position, as produced by calculateCompactFOV(), or null if this
+     * FOVCache is not in compact mode or the entry has not been cached yet.
+     * @param x the viewer's x position
+     * @param y the viewer's y position
+     * @return a sorted short[] of Hilbert Curve boundaries relative to the viewer's window, or null
+     */
+    public short[] getCompactEntry(int x, int y)
+    {
+        if(!compact)
+            return null;
+        return (short[]) fetchEntry(x + y * width);
+    }
+
+    /**
+     * Expands the compact entry for the given viewer position into a byte[][] the size of the whole map, with the same
+     * contents waveFOV() would produce for that viewer: 0 for cells that are not visible, or maxRadius + 1 minus the
+     * distance from the viewer for visible cells.
+     * @param viewerX the viewer's x position
+     * @param viewerY the viewer's y position
+     * @return a byte[width][height] matching waveFOV(viewerX, viewerY), or all 0 if no compact entry is cached
+     */
+    public byte[][] unpackCompactEntry(int viewerX, int viewerY)
+    {
+        byte[][] unpacked = new byte[width][height];
+        short[] entry = getCompactEntry(viewerX, viewerY);
+        if(entry == null)
+            return unpacked;
+        int cx, cy;
+        short x, y;
+        for (int b = 0; b + 1 < entry.length; b += 2) {
+            for (int i = entry[b]; i < entry[b + 1]; i++) {
+                x = hilbertX[i];
+                y = hilbertY[i];
+                cx = viewerX - maxRadius + x;
+                cy = viewerY - maxRadius + y;
+                if(cx >= 0 && cy >= 0 && cx < width && cy < height)
+                    unpacked[cx][cy] = (byte)(distanceCache[x][y] + 1);
+            }
+        }
+        return unpacked;
+    }
+
+    /**
+     * Gets the cells the given viewer can see within visionRange as a bitset, one bit per cell, in the layout used
+     * by FOV.calculateVisibility(); see that method for details. This reads the cached entry directly without
+     * unpacking it to a 2D array, and the result can be combined with other bitsets using
+     * FOV.intersectVisibility(), FOV.unionVisibility(), and FOV.intersects(). Unlike isCellVisible(), this does not
+     * also check whether each target can see the viewer.
+     * @param visionRange how far the viewer can see, from 1 to maxRadius
+     * @param viewerX the viewer's x position
+     * @param viewerY the viewer's y position
+     * @param visible a long[] to reuse, which will be overwritten; if null or too small, a new array is allocated
+     * @return the bitset of cells the viewer can see; this is visible if it was large enough
+     */
+    public long[] getVisibility(int visionRange, int viewerX, int viewerY, long[] visible)
+    {
+        int stride = FOV.bitStride(height);
+        if (visible == null || visible.length < width * stride)
+            visible = new long[width * stride];
+        else
+            Arrays.fill(visible, 0L);
+        if(compact) {
+            short[] entry = (short[]) fetchEntry(viewerX + viewerY * width);
+            if(entry == null)
+                return visible;
+            int cx, cy;
+            short x, y;
+            for (int b = 0; b + 1 < entry.length; b += 2) {
+                for (int i = entry[b]; i < entry[b + 1]; i++) {
+                    x = hilbertX[i];
+                    y = hilbertY[i];
+                    cx = viewerX - maxRadius + x;
+                    cy = viewerY - maxRadius + y;
+                    if(cx >= 0 && cy >= 0 && cx < width && cy < height && maxRadius - distanceCache[x][y] <= visionRange)
+                        visible[cx * stride + (cy >> 6)] |= 1L << cy;
+                }
+            }
+            return visible;
+        }
+        short[][] entry = (short[][]) fetchEntry(viewerX + viewerY * width);
+        if(entry == null)
+            return visible;
+        short[] packed = entry[maxRadius - visionRange];
+        boolean on = false;
+        int idx = 0;
+        short x, y;
+        for(int p = 0; p < packed.length; p++, on = !on) {
+            if (on) {
+                for (int toSkip = idx + (packed[p] & 0xffff); idx < toSkip; idx++) {
+                    x = hilbertX[idx];
+                    y = hilbertY[idx];
+                    if(x < width && y < height)
+                        visible[x * stride + (y >> 6)] |= 1L << y;
+                }
+            } else {
+                idx += packed[p] & 0xffff;
+            }
+        }
+        return visible;
     }
 
     public boolean isCellVisible(int visionRange, int viewerX, int viewerY, int targetX, int targetY)
     {
-        return queryPacked(cache[viewerX + viewerY  * width][maxRadius - visionRange], targetX, targetY) ||
-                queryPacked(cache[targetX + targetY  * width][maxRadius - visionRange], viewerX, viewerY);
+        if(compact) {
+            int dx = targetX - viewerX + maxRadius, dy = targetY - viewerY + maxRadius, side = maxRadius * 2;
+            if (dx < 0 || dy < 0 || dx > side || dy > side || maxRadius - distanceCache[dx][dy] > visionRange)
+                return false;
+            return queryCompact((short[]) fetchEntry(viewerX + viewerY * width), dx, dy) ||
+                    queryCompact((short[]) fetchEntry(targetX + targetY * width), side - dx, side - dy);
+        }
+        return queryPacked(((short[][]) fetchEntry(viewerX + viewerY  * width))[maxRadius - visionRange],
+                targetX, targetY) ||
+                queryPacked(((short[][]) fetchEntry(targetX + targetY  * width))[maxRadius - visionRange],
+                        viewerX, viewerY);
+    }
+
+    /**
+     * Checks whether a position in a viewer's window is on in a compact entry, using a binary search.
+     * @param entry a compact entry; may be null, which is treated as all off
+     * @param windowX x position in the viewer's window, from 0 to 2 * maxRadius
+     * @param windowY y position in the viewer's window, from 0 to 2 * maxRadius
+     * @return true if the position is in a visible run
+     */
+    protected static boolean queryCompact(short[] entry, int windowX, int windowY)
+    {
+        if(entry == null || entry.length == 0)
+            return false;
+        int pos = Arrays.binarySearch(entry, (short) posToHilbert(windowX, windowY));
+        // the number of boundaries at or before the position determines if it is on
+        return ((pos >= 0 ? pos + 1 : -pos - 1) & 1) == 1;
     }
 
     public void cacheAll() {
-        List<LOSUnit> losUnits = new ArrayList<LOSUnit>(width * height);
+        List<LOSUnit> losUnits = new ArrayList<LOSUnit>(compact ? 0 : width * height);
         List<FOVUnit> fovUnits = new ArrayList<FOVUnit>(width * height);
         for (int i = 0; i < width * height; i++) {
-            losUnits.add(new LOSUnit(i));
+            if(!compact)
+                losUnits.add(new LOSUnit(i));
             fovUnits.add(new FOVUnit(i));
         }
         ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
@@ -328,29 +600,194 @@ public class FOVCache {
         } catch (ExecutionException e) {
             e.printStackTrace();
         }
+        executor.shutdown();
+        complete = true;
         totalTime = System.currentTimeMillis() - totalTime;
         System.out.println("Total real time elapsed: " + totalTime);
         System.out.println("Total CPU time elapsed, on " + NUM_THREADS + " threads: " + threadTime);
+        System.out.println("Total memory used by cache: " + memoryUsed());
+    }
 
-        long totalRAM = 0;
+    /**
+     * Estimates how many bytes the cached entries take up, counting each array's header and padding. Entries that
+     * share the same array, such as those for walls, are counted each time they appear. Lazily computed entries are
+     * included.
+     * @return an estimate of the memory used by the cache, in bytes
+     */
+    public long memoryUsed() {
+        long totalRAM;
+        synchronized (updateLock) {
+            totalRAM = lazyBytes;
+        }
         for (int c = 0; c < width * height; c++) {
-            long ctr = 0, losCtr = 0;
-            for (int i = 0; i < cache[c].length; i++) {
-                ctr += (((2 * cache[c][i].length + 12 - 1) / 8) + 1) * 8L;
+            if(compact) {
+                if(compactCache[c] != null)
+                    totalRAM += entryBytes(compactCache[c]);
+                continue;
             }
-            totalRAM += (((ctr + 12 - 1) / 8) + 1) * 8;
+            long losCtr;
+            if(cache[c] != null)
+                totalRAM += entryBytes(cache[c]);
+            if(losCache[c] != null) {
+                losCtr = (((2 * losCache[c].length + 12 - 1) / 8) + 1) * 8L;
+                totalRAM += (((losCtr + 12 - 1) / 8) + 1) * 8;
+            }
+        }
+        return totalRAM;
+    }
+
+    /**
+     * Changes the cell at x,y to the given map char, such as when a door opens or a wall is dug out, and recomputes
+     * the cached FOV of only those viewers the change could affect. A viewer is affected if it stands on the changed
+     * cell or if its cached FOV (or its LOS, when not in compact mode) could see the changed cell; cells a viewer
+     * cannot see do not influence its FOV, and viewers farther than maxRadius away (62 for LOS) cannot see the cell.
+     * The recalculation happens in the background on NUM_THREADS daemon threads, and entries are replaced as they
+     * finish, so queries made in the meantime see the old FOV for viewers that have not been updated yet. If several
+     * changes affect the same viewer before it is updated, only the result that accounts for all of them is kept.
+     * Entries computed on demand after setLazyBudget() are simply forgotten if affected, and recalculated when needed.
+     * @param x the x position of the changed cell
+     * @param y the y position of the changed cell
+     * @param tile the new char at x,y, using the same chars as the map passed to the constructor
+     * @return a List of Futures, one per recomputed viewer, that finish when that viewer's entry has been replaced
+     */
+    public List<Future<Long>> changeCell(int x, int y, char tile)
+    {
+        return changeCell(x, y, DungeonUtility.generateResistances(new char[][]{{tile}})[0][0]);
+    }
 
-            losCtr = (((2 * losCache[c].length + 12 - 1) / 8) + 1) * 8L;
-            totalRAM += (((losCtr + 12 - 1) / 8) + 1) * 8;
+    /**
+     * Changes the resistance of the cell at x,y and recomputes, in the background, only the cached FOV entries the
+     * change could affect. See changeCell(int, int, char) for details.
+     * @param x the x position of the changed cell
+     * @param y the y position of the changed cell
+     * @param resistance the new resistance at x,y, from 0.0 (fully transparent) to 1.0 (fully opaque)
+     * @return a List of Futures, one per recomputed viewer, that finish when that viewer's entry has been replaced
+     */
+    public List<Future<Long>> changeCell(int x, int y, double resistance)
+    {
+        if(x < 0 || y < 0 || x >= width || y >= height)
+            throw new ArrayIndexOutOfBoundsException("Changed cell must be inside the map");
+        List<UpdateUnit> units = new ArrayList<UpdateUnit>(64);
+        ExecutorService executor;
+        synchronized (updateLock) {
+            if (scheduled == null) {
+                scheduled = new int[width * height];
+                completed = new int[width * height];
+            }
+            if (updateExecutor == null)
+                updateExecutor = Executors.newFixedThreadPool(NUM_THREADS, new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, "FOVCache-update");
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+            executor = updateExecutor;
+            resMap[x][y] = resistance;
+            if(lazyCache != null) {
+                lazyEpoch++;
+                Iterator<Map.Entry<Integer, Object>> it = lazyCache.entrySet().iterator();
+                Map.Entry<Integer, Object> e;
+                int vx, vy, dx, dy, side = maxRadius * 2;
+                while (it.hasNext()) {
+                    e = it.next();
+                    vx = e.getKey() % width;
+                    vy = e.getKey() / width;
+                    dx = x - vx + maxRadius;
+                    dy = y - vy + maxRadius;
+                    if ((vx == x && vy == y) || (dx >= 0 && dy >= 0 && dx <= side && dy <= side &&
+                            (compact ? queryCompact((short[]) e.getValue(), dx, dy)
+                                    : queryPacked(((short[][]) e.getValue())[0], x, y)))) {
+                        lazyBytes -= entryBytes(e.getValue());
+                        it.remove();
+                    }
+                }
+            }
+            int reach = compact ? maxRadius : 62, index;
+            for (int vx = Math.max(0, x - reach); vx <= Math.min(width - 1, x + reach); vx++) {
+                for (int vy = Math.max(0, y - reach); vy <= Math.min(height - 1, y + reach); vy++) {
+                    index = vx + vy * width;
+                    if ((vx == x && vy == y && (compact ? compactCache[index] : cache[index]) != null) ||
+                            mightSee(index, vx, vy, x, y))
+                        units.add(new UpdateUnit(index, ++scheduled[index]));
+                }
+            }
+        }
+        List<Future<Long>> futures = new ArrayList<Future<Long>>(units.size());
+        for (UpdateUnit unit : units) {
+            futures.add(executor.submit(unit));
         }
-        System.out.println("Total memory used by cache: " + totalRAM);
+        return futures;
     }
 
+    /**
+     * Checks if the viewer at the given index could see x,y according to its cached entries, or has an update pending
+     * that may change what it can see. Must be called while holding updateLock.
+     */
+    private boolean mightSee(int index, int viewerX, int viewerY, int x, int y)
+    {
+        if(scheduled[index] != completed[index])
+            return true;
+        int dx = x - viewerX + maxRadius, dy = y - viewerY + maxRadius, side = maxRadius * 2;
+        boolean near = dx >= 0 && dy >= 0 && dx <= side && dy <= side;
+        if(compact)
+            return near && queryCompact(compactCache[index], dx, dy);
+        return (near && cache[index] != null && queryPacked(cache[index][0], x, y)) ||
+                (losCache[index] != null && queryPacked(losCache[index], x, y));
+    }
+
+    /**
+     * Recomputes the entries for one viewer after a call to changeCell(), storing them only if no later change has
+     * scheduled this viewer again in the meantime.
+     * @param index an int that stores the x,y center of FOV as calculated by: x + y * width
+     * @param stamp the value of scheduled[index] when this update was requested
+     * @return the time taken, in milliseconds
+     */
+    protected long storeUpdatedCell(int index, int stamp) {
+        long startTime = System.currentTimeMillis();
+        int x = index % width, y = index / width;
+        short[] compactEntry = null, losEntry = null;
+        short[][] entry = null;
+        if(compact)
+            compactEntry = calculateCompactFOV(x, y);
+        else {
+            entry = calculateWaveFOV(x, y);
+            losEntry = calculateCellLOS(x, y);
+        }
+        synchronized (updateLock) {
+            if(scheduled[index] == stamp) {
+                if(compact)
+                    compactCache[index] = compactEntry;
+                else {
+                    cache[index] = entry;
+                    losCache[index] = losEntry;
+                }
+                completed[index] = stamp;
+            }
+        }
+        return System.currentTimeMillis() - startTime;
+    }
 
     public byte[][] waveFOV(int viewerX, int viewerY) {
         byte[][] gradientMap = new byte[width][height];
+        waveFOV(viewerX, viewerY, gradientMap, 0, 0);
+        return gradientMap;
+    }
+
+    /**
+     * Runs the same calculation as waveFOV(int, int), but writes into part or all of the map, with the map position
+     * x,y stored at gradientMap[x - offsetX][y - offsetY]. Cells that would fall outside gradientMap must not be
+     * visible from the viewer, so gradientMap should cover at least the viewer's position plus or minus maxRadius.
+     * @param viewerX the viewer's x position on the map
+     * @param viewerY the viewer's y position on the map
+     * @param gradientMap a byte[][] that will be modified where cells are visible; should start filled with 0
+     * @param offsetX the map x position stored at gradientMap[0]
+     * @param offsetY the map y position stored at gradientMap[x][0]
+     */
+    protected void waveFOV(int viewerX, int viewerY, byte[][] gradientMap, int offsetX, int offsetY) {
         double[][] angleMap = new double[2 * maxRadius + 1][2 * maxRadius + 1];
-        gradientMap[viewerX][viewerY] = (byte)(2 * maxRadius);
+        gradientMap[viewerX - offsetX][viewerY - offsetY] = (byte)(2 * maxRadius);
         Direction[] dirs = (radiusKind == Radius.DIAMOND || radiusKind == Radius.OCTAHEDRON)
                 ? Direction.CARDINALS : Direction.OUTWARDS;
         int cx, cy, nearCWx, nearCWy, nearCCWx, nearCCWy;
@@ -372,7 +809,7 @@ public class FOVCache {
 
                     if(w <= 0)
                     {
-                        gradientMap[cx][cy] = dist;
+                        gradientMap[cx - offsetX][cy - offsetY] = dist;
                     }
                     else {
                         switch ((int) Math.floor(theta / QUARTER_PI)) {
@@ -503,15 +940,13 @@ public class FOVCache {
                                 angleMap[pt.x][pt.y] += 0.5 * angleMap[nearCCWx - viewerX + maxRadius][nearCCWy - viewerY + maxRadius];
                         }
                         if(angleMap[pt.x][pt.y] <= QUARTER_PI)
-                            gradientMap[cx][cy] = dist;
+                            gradientMap[cx - offsetX][cy - offsetY] = dist;
                         else
                             angleMap[pt.x][pt.y] = PI2;
                     }
                 }
             }
         }
-
-        return gradientMap;
     }
     private byte heuristic(Direction target) {
         switch (radiusKind) {
@@ -589,4 +1024,25 @@ public class FOVCache {
             return storeCellLOS(index);
         }
     }
+
+    public class UpdateUnit implements Callable<Long>
+    {
+        protected int index, stamp;
+        public UpdateUnit(int index, int stamp)
+        {
+            this.index = index;
+            this.stamp = stamp;
+        }
+
+        /**
+         * Computes a result, or throws an exception if unable to do so.
+         *
+         * @return computed result
+         * @throws Exception if unable to compute a result
+         */
+        @Override
+        public Long call() throws Exception {
+            return storeUpdatedCell(index, stamp);
+        }
+    }
 }
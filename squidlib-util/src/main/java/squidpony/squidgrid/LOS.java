@@ -1,6 +1,5 @@
 package squidpony.squidgrid;
 
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
@@ -41,6 +40,7 @@ public class LOS {
     private double[][] resistanceMap;
     private int startx, starty, targetx, targety;
     private Elias elias = null;
+    private LOS losFromStart = null, losToTarget = null;
     public Radius getRadiusStrategy() {
         return radiusStrategy;
     }
@@ -273,57 +273,27 @@ public class LOS {
             elias = new Elias();
         List<Coord> ePath = elias.line(startx, starty, targetx, targety);
         lastPath = new LinkedList<>(ePath);//save path for later retreival
-
-        HashMap<eliasWorker, Thread> pool = new HashMap<>();
-
-        for (Coord p : ePath) {
-            eliasWorker worker = new eliasWorker(p.x, p.y, radiusStrategy);
-            Thread thread = new Thread(worker);
-            thread.start();
-            pool.put(worker, thread);
+        if(losFromStart == null) {
+            losFromStart = new LOS(BRESENHAM);
+            losToTarget = new LOS(BRESENHAM);
         }
+        double distance = radiusStrategy.radius(startx, starty, targetx, targety);
+        //if a non-solid midpoint on the path can see both the start and end, consider the two ends to be able to see each other
+        //midpoints are tried in order along the line, stopping at the first one that works
+        for (Coord p : ePath) {
+            if (resistanceMap[p.x][p.y] < 1
+                    && radiusStrategy.radius(startx, starty, p.x, p.y) <= distance
+                    && losToTarget.isReachable(resistanceMap, p.x, p.y, targetx, targety, radiusStrategy)
+                    && losFromStart.isReachable(resistanceMap, startx, starty, p.x, p.y, radiusStrategy)) {
 
-        for (eliasWorker w : pool.keySet()) {
-            try {
-                pool.get(w).join();
-            } catch (InterruptedException ex) {
-            }
-            if (w.succeeded) {
-                lastPath = w.path;
+                //record actual sight path used
+                Queue<Coord> path = new LinkedList<>(losFromStart.lastPath);
+                path.addAll(losToTarget.lastPath);
+                lastPath = path;
                 return true;
             }
         }
 
         return false;//never got to the target point
     }
-
-    private class eliasWorker implements Runnable {
-
-        private Queue<Coord> path;
-        private boolean succeeded = false;
-        private int testx, testy;
-        private Radius radiusStrategy;
-        eliasWorker(int testx, int testy, Radius radiusStrategy) {
-            this.testx = testx;
-            this.testy = testy;
-            this.radiusStrategy = radiusStrategy;
-        }
-
-        @Override
-        public void run() {
-            LOS los1 = new LOS(BRESENHAM);
-            LOS los2 = new LOS(BRESENHAM);
-            //if a non-solid midpoint on the path can see both the start and end, consider the two ends to be able to see each other
-            if (resistanceMap[testx][testy] < 1
-                    && radiusStrategy.radius(startx, starty, testx, testy) <= radiusStrategy.radius(startx, starty, targetx, targety)
-                    && los1.isReachable(resistanceMap, testx, testy, targetx, targety, radiusStrategy)
-                    && los2.isReachable(resistanceMap, startx, starty, testx, testy, radiusStrategy)) {
-
-                //record actual sight path used
-                path = new LinkedList<>(los2.lastPath);
-                path.addAll(los1.lastPath);
-                succeeded = true;
-            }
-        }
-    }
 }
@@ -0,0 +1,270 @@
+package squidpony.squidgrid;
+
+import java.util.Arrays;
+
+/**
+ * The propagation engine SoundMap uses when its frontierScan field is true. Instead of copying a HashMap of Coord keys
+ * to boxed Double values for every step the sound travels, this keeps every cell as an int index equal to
+ * {@code x + y * width}, stores loudness in a flat double array, and visits cells loudest-first using a bucket queue
+ * with one bucket per whole number of loudness. Every step costs at least 1 loudness, so cells in the same bucket can't
+ * make each other louder, and each cell is expanded exactly once. All buffers are kept between scans, and only cells
+ * the sounds actually reach are touched, so a scan costs time proportional to the area within the loudest sound's
+ * radius rather than to the size of the map.
+ * <br>
+ * Each sound can be given an int id, and every reached cell remembers the id of the sound that is loudest there, so
+ * one scan can tell which of many sounds each listener heard best; see SoundMap.findAlertedBy().
+ * <br>
+ * Results match SoundMap.scan() after resetMap() when loudness values are whole numbers. With fractional loudness,
+ * each cell gets the loudest value any path can give it, which scan() only approximates because it visits cells in
+ * hash order.
+ * <br>
+ * You normally don't need to use this class directly; set {@link SoundMap#frontierScan} to true and SoundMap's
+ * scan() and findAlerted() will use one of these. A SoundFrontier is not thread-safe.
+ */
+public class SoundFrontier {
+    /**
+     * The dimensions of the map this was constructed with.
+     */
+    public final int width, height;
+    /**
+     * The loudness at each cell after the latest scan, indexed by {@code x + y * width}. Only cells listed in touched
+     * are meaningful; other entries may hold values from older scans.
+     */
+    public final double[] loudness;
+    /**
+     * The indices of every cell reached by the latest scan, in the order they were first reached; only the first
+     * touchedCount entries are used.
+     */
+    public final int[] touched;
+    /**
+     * How many entries of touched are in use.
+     */
+    public int touchedCount;
+    /**
+     * The id of the loudest sound at each cell after the latest scan, indexed like loudness. As with loudness, only
+     * cells listed in touched are meaningful. When two sounds are equally loud at a cell, either id may be stored.
+     */
+    public final int[] loudestSource;
+
+    private final boolean[] walls;
+    private final int[] stamps, next, prev, bucketOf;
+    private int[] heads = new int[64];
+    private int stamp;
+
+    private int[] sourceCells = new int[16], sourceIds = new int[16];
+    private double[] sourceLevels = new double[16];
+    private int sourceCount;
+
+    /**
+     * Allocates all the buffers needed to scan the given map; cells equal to SoundMap.WALL are walls.
+     * @param physicalMap a double[][] as stored in SoundMap.physicalMap
+     */
+    public SoundFrontier(double[][] physicalMap) {
+        width = physicalMap.length;
+        height = physicalMap[0].length;
+        int size = width * height;
+        loudness = new double[size];
+        touched = new int[size];
+        walls = new boolean[size];
+        stamps = new int[size];
+        next = new int[size];
+        prev = new int[size];
+        bucketOf = new int[size];
+        loudestSource = new int[size];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                walls[x + y * width] = physicalMap[x][y] == SoundMap.WALL;
+            }
+        }
+    }
+
+    /**
+     * Adds a sound for the next scan, with an id of -1. Sounds stay until clearSounds() is called.
+     * @param x the x-coordinate of the sound
+     * @param y the y-coordinate of the sound
+     * @param level how loud the sound is; it spreads this many cells away
+     */
+    public void addSound(int x, int y, double level) {
+        addSound(x, y, level, -1);
+    }
+
+    /**
+     * Adds a sound for the next scan, with an id that will be stored in loudestSource for every cell where it is the
+     * loudest sound. Sounds stay until clearSounds() is called.
+     * @param x the x-coordinate of the sound
+     * @param y the y-coordinate of the sound
+     * @param level how loud the sound is; it spreads this many cells away
+     * @param id any int that identifies this sound, such as its index in an array of sounds
+     */
+    public void addSound(int x, int y, double level, int id) {
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            return;
+        if (sourceCount == sourceCells.length) {
+            sourceCells = Arrays.copyOf(sourceCells, sourceCount << 1);
+            sourceIds = Arrays.copyOf(sourceIds, sourceCount << 1);
+            sourceLevels = Arrays.copyOf(sourceLevels, sourceCount << 1);
+        }
+        sourceCells[sourceCount] = x + y * width;
+        sourceIds[sourceCount] = id;
+        sourceLevels[sourceCount++] = level;
+    }
+
+    /**
+     * Removes all sounds added with addSound().
+     */
+    public void clearSounds() {
+        sourceCount = 0;
+    }
+
+    /**
+     * Spreads every sound added since the last clearSounds() through the map, filling loudness and touched.
+     * @param measurement MANHATTAN to spread in 4 directions, or CHEBYSHEV to spread in 8
+     * @return how many cells were reached, which is also the new touchedCount
+     */
+    public int scan(SoundMap.Measurement measurement) {
+        if (++stamp == 0) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        touchedCount = 0;
+        int top = 0;
+        for (int s = 0; s < sourceCount; s++) {
+            top = Math.max(top, (int) Math.ceil(sourceLevels[s]));
+        }
+        if (heads.length <= top)
+            heads = new int[top + 1];
+        Arrays.fill(heads, 0, top + 1, -1);
+        for (int s = 0; s < sourceCount; s++) {
+            raise(sourceCells[s], sourceLevels[s], sourceIds[s]);
+        }
+        boolean eightWay = measurement == SoundMap.Measurement.CHEBYSHEV;
+        int cell, x, y, adj, id;
+        double v, nv;
+        for (int b = top; b > 1; b--) {
+            while ((cell = heads[b]) >= 0) {
+                heads[b] = next[cell];
+                if (heads[b] >= 0)
+                    prev[heads[b]] = -1;
+                bucketOf[cell] = -1;
+                v = loudness[cell];
+                if (v <= 1)
+                    continue;
+                id = loudestSource[cell];
+                x = cell % width;
+                y = cell / width;
+                for (int dx = -1; dx <= 1; dx++) {
+                    if (x + dx < 0 || x + dx >= width)
+                        continue;
+                    for (int dy = -1; dy <= 1; dy++) {
+                        if ((dx == 0 && dy == 0) || y + dy < 0 || y + dy >= height || (!eightWay && dx != 0 && dy != 0))
+                            continue;
+                        adj = cell + dx + dy * width;
+                        if (walls[cell] && walls[adj])
+                            continue;
+                        nv = v - (walls[adj] ? 2 : 1);
+                        if (nv > 0)
+                            raise(adj, nv, id);
+                    }
+                }
+            }
+        }
+        // bucket 1 only holds cells too quiet to spread, but they still need to leave the queue
+        if (top >= 1) {
+            for (cell = heads[1]; cell >= 0; cell = next[cell]) {
+                bucketOf[cell] = -1;
+            }
+            heads[1] = -1;
+        }
+        return touchedCount;
+    }
+
+    /**
+     * Gets the loudness at a cell after the latest scan, or 0 if no sound reached it.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return the loudness at x,y
+     */
+    public double get(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            return 0.0;
+        int cell = x + y * width;
+        return stamps[cell] == stamp ? loudness[cell] : 0.0;
+    }
+
+    /**
+     * Gets the id of the loudest sound at a cell after the latest scan, or -1 if no sound reached it.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return the id given to addSound() for the loudest sound at x,y, or -1
+     */
+    public int getSource(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height)
+            return -1;
+        int cell = x + y * width;
+        return stamps[cell] == stamp ? loudestSource[cell] : -1;
+    }
+
+    /**
+     * Copies the latest scan into gradientMap for every touched cell, using SoundMap.WALL for walls as scan() does.
+     * @param gradientMap a double[width][height] to write into
+     */
+    public void writeTo(double[][] gradientMap) {
+        int cell;
+        for (int i = 0; i < touchedCount; i++) {
+            cell = touched[i];
+            gradientMap[cell % width][cell / width] = walls[cell] ? SoundMap.WALL : loudness[cell];
+        }
+    }
+
+    /**
+     * Undoes writeTo() by copying physicalMap back over every cell touched by the latest scan, which is much cheaper
+     * than resetting the whole map when sounds are small relative to it.
+     * @param gradientMap the double[width][height] that was written to
+     * @param physicalMap the double[width][height] to restore values from
+     */
+    public void restore(double[][] gradientMap, double[][] physicalMap) {
+        int cell, x, y;
+        for (int i = 0; i < touchedCount; i++) {
+            cell = touched[i];
+            x = cell % width;
+            y = cell / width;
+            gradientMap[x][y] = physicalMap[x][y];
+        }
+    }
+
+    /**
+     * Sets a cell's loudness to level and its source to id if that is louder than what it has now, moving it to the
+     * matching bucket.
+     */
+    private void raise(int cell, double level, int id) {
+        if (stamps[cell] != stamp) {
+            stamps[cell] = stamp;
+            touched[touchedCount++] = cell;
+            bucketOf[cell] = -1;
+        } else if (loudness[cell] >= level)
+            return;
+        loudness[cell] = level;
+        loudestSource[cell] = id;
+        int b = bucketOf[cell], nb = (int) Math.ceil(level);
+        if (b == nb)
+            return;
+        if (b >= 0) {
+            if (prev[cell] >= 0)
+                next[prev[cell]] = next[cell];
+            else
+                heads[b] = next[cell];
+            if (next[cell] >= 0)
+                prev[next[cell]] = prev[cell];
+        }
+        if (nb < 1) {
+            bucketOf[cell] = -1;
+            return;
+        }
+        bucketOf[cell] = nb;
+        prev[cell] = -1;
+        next[cell] = heads[nb];
+        if (heads[nb] >= 0)
+            prev[heads[nb]] = cell;
+        heads[nb] = cell;
+    }
+}
@@ -1,6 +1,8 @@
 package squidpony.squidgrid;
 
 import squidpony.squidmath.Coord;
+import squidpony.squidmath.IntDoubleMap;
+import squidpony.squidmath.IntSet;
 import squidpony.squidmath.LightRNG;
 import squidpony.squidmath.RNG;
 
@@ -80,6 +82,22 @@ public class SoundMap
      */
     public RNG rng;
 
+    /**
+     * When true, scan() and findAlerted() spread sound with a SoundFrontier, which stores loudness in flat arrays and
+     * visits cells loudest-first, instead of copying HashMaps of boxed Doubles for every step the sound travels. It
+     * only touches cells that sounds reach, and undoes its previous scan by restoring just those cells, so scans in
+     * this mode always start from physicalMap as if resetMap() had been called. That full pass over the map is only
+     * made when gradientMap was changed some other way since the last scan in this mode, such as by setOccupied(),
+     * resetCell(), or a scan() with this set to false. The results are the same as resetMap() followed by a normal
+     * scan() when sounds have whole-number loudness. Defaults to false.
+     */
+    public boolean frontierScan = false;
+    private SoundFrontier frontier;
+    /**
+     * True when gradientMap may differ from physicalMap in cells the frontier doesn't know it touched.
+     */
+    private boolean gradientChanged = true;
+
     private boolean initialized = false;
     /**
      * Construct a SoundMap without a level to actually scan. If you use this constructor, you must call an
@@ -194,6 +212,7 @@ public class SoundMap
                 physicalMap[x][y] = level[x][y];
             }
         }
+        frontier = null;
         initialized = true;
         return this;
     }
@@ -216,6 +235,7 @@ public class SoundMap
                 physicalMap[x][y] = t;
             }
         }
+        frontier = null;
         initialized = true;
         return this;
     }
@@ -240,6 +260,7 @@ public class SoundMap
                 physicalMap[x][y] = t;
             }
         }
+        frontier = null;
         initialized = true;
         return this;
     }
@@ -255,6 +276,7 @@ public class SoundMap
                 gradientMap[x][y] = physicalMap[x][y];
             }
         }
+        gradientChanged = false;
     }
 
     /**
@@ -330,6 +352,7 @@ public class SoundMap
     public void setOccupied(int x, int y) {
         if(!initialized) return;
         gradientMap[x][y] = WALL;
+        gradientChanged = true;
     }
 
     /**
@@ -340,6 +363,7 @@ public class SoundMap
     public void resetCell(int x, int y) {
         if(!initialized) return;
         gradientMap[x][y] = physicalMap[x][y];
+        gradientChanged = true;
     }
 
     /**
@@ -349,6 +373,7 @@ public class SoundMap
     public void resetCell(Coord pt) {
         if(!initialized) return;
         gradientMap[pt.x][pt.y] = physicalMap[pt.x][pt.y];
+        gradientChanged = true;
     }
 
     /**
@@ -362,12 +387,14 @@ public class SoundMap
     protected void setFresh(int x, int y, double counter) {
         if(!initialized) return;
         gradientMap[x][y] = counter;
+        gradientChanged = true;
         fresh.put(Coord.get(x, y), counter);
     }
 
     protected void setFresh(final Coord pt, double counter) {
         if(!initialized) return;
         gradientMap[pt.x][pt.y] = counter;
+        gradientChanged = true;
         fresh.put(Coord.get(pt.x, pt.y), counter);
     }
 
@@ -384,6 +411,9 @@ public class SoundMap
      */
     public double[][] scan() {
         if(!initialized) return null;
+        if(frontierScan)
+            return frontierScan();
+        gradientChanged = true;
 
         for (Map.Entry<Coord, Double> entry : sounds.entrySet()) {
             gradientMap[entry.getKey().x][entry.getKey().y] = entry.getValue();
@@ -438,6 +468,35 @@ public class SoundMap
         return gradientMap;
     }
 
+    /**
+     * The version of scan() used when frontierScan is true.
+     */
+    protected double[][] frontierScan() {
+        prepareFrontier();
+        frontier.scan(measurement);
+        frontier.writeTo(gradientMap);
+        return gradientMap;
+    }
+
+    /**
+     * Creates the SoundFrontier if needed, undoes its last scan on gradientMap (or resets all of gradientMap if it was
+     * changed some other way), and loads it with sounds.
+     */
+    private void prepareFrontier() {
+        if(frontier == null) {
+            frontier = new SoundFrontier(physicalMap);
+            resetMap();
+        }
+        else if(frontierScan && !gradientChanged)
+            frontier.restore(gradientMap, physicalMap);
+        else
+            resetMap();
+        frontier.clearSounds();
+        for (Map.Entry<Coord, Double> entry : sounds.entrySet()) {
+            frontier.addSound(entry.getKey().x, entry.getKey().y, entry.getValue());
+        }
+    }
+
     /**
      * Scans the dungeon using SoundMap.scan, adding any positions in extraSounds to the group of known sounds before
      * scanning.  The creatures passed to this function as a Set of Points will have the loudness of all sounds at
@@ -451,7 +510,8 @@ public class SoundMap
         if(!initialized) return null;
         alerted = new HashMap<Coord, Double>(creatures.size());
 
-        resetMap();
+        if(!frontierScan)
+            resetMap();
         for (Map.Entry<Coord, Double> sound : extraSounds.entrySet()) {
             setSound(sound.getKey(), sound.getValue());
         }
@@ -464,4 +524,72 @@ public class SoundMap
         }
         return alerted;
     }
+
+    /**
+     * Spreads many sounds at once and finds out, for each creature, which of those sounds it heard loudest. The
+     * sounds in sources are identified by their index, so the returned HashMap has the positions of creatures as keys
+     * and, as values, the index in sources of the loudest sound at each position, or -1 if none of them reached it.
+     * Sounds already added with setSound() are spread as well, but have no index, so a creature that hears one of them
+     * loudest gets -1. The loudness at each creature's position is put in alerted, as with findAlerted(). This takes
+     * one scan no matter how many sounds there are, instead of one scan per sound, and always uses a SoundFrontier;
+     * sources are not added to the sounds this SoundMap keeps.
+     *
+     * @param creatures the positions of creatures that could hear the sounds
+     * @param sources the positions of each sound
+     * @param loudness how loud each sound is, in the same order as sources
+     * @return a HashMap of creature positions to the index of the loudest sound each one heard, or -1
+     */
+    public HashMap<Coord, Integer> findAlertedBy(Set<Coord> creatures, Coord[] sources, double[] loudness) {
+        if(!initialized) return null;
+        alerted = new HashMap<Coord, Double>(creatures.size());
+        HashMap<Coord, Integer> heard = new HashMap<Coord, Integer>(creatures.size());
+        prepareFrontier();
+        for (int i = 0; i < sources.length; i++) {
+            frontier.addSound(sources[i].x, sources[i].y, loudness[i], i);
+        }
+        frontier.scan(measurement);
+        frontier.writeTo(gradientMap);
+        for(Coord critter : creatures)
+        {
+            if(critter.x < 0 || critter.x >= width || critter.y < 0 || critter.y >= height)
+                continue;
+            alerted.put(Coord.get(critter.x, critter.y), gradientMap[critter.x][critter.y]);
+            heard.put(Coord.get(critter.x, critter.y), frontier.getSource(critter.x, critter.y));
+        }
+        return heard;
+    }
+
+    /**
+     * Like findAlerted(Set, Map), but every position is an int made by Coord.encode(), and the loudness each creature
+     * hears is returned in an IntDoubleMap instead of being put in alerted. This always uses a SoundFrontier, as
+     * findAlertedBy() does, and extraSounds are spread along with the sounds added by setSound() without being added
+     * to them, so no Coord or Double is created for either the sounds or the creatures.
+     *
+     * @param creatures encoded positions of creatures that could hear the sounds
+     * @param extraSounds encoded positions of sounds to spread this time only, mapped to their loudness; may be null
+     * @return an IntDoubleMap of encoded creature positions to the loudness heard at each one
+     */
+    public IntDoubleMap findAlerted(IntSet creatures, IntDoubleMap extraSounds) {
+        if(!initialized) return null;
+        IntDoubleMap heard = new IntDoubleMap(creatures.size());
+        prepareFrontier();
+        if(extraSounds != null) {
+            IntDoubleMap.Cursor sound = extraSounds.cursor();
+            while (sound.next()) {
+                frontier.addSound(Coord.decodeX(sound.key), Coord.decodeY(sound.key), sound.value);
+            }
+        }
+        frontier.scan(measurement);
+        frontier.writeTo(gradientMap);
+        IntSet.Cursor critter = creatures.cursor();
+        int x, y;
+        while (critter.next()) {
+            x = Coord.decodeX(critter.key);
+            y = Coord.decodeY(critter.key);
+            if(x >= width || y >= height)
+                continue;
+            heard.put(critter.key, gradientMap[x][y]);
+        }
+        return heard;
+    }
 }
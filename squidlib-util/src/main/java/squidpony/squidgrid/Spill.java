@@ -1,6 +1,7 @@
 package squidpony.squidgrid;
 
 import squidpony.squidmath.Coord;
+import squidpony.squidmath.IntSet;
 import squidpony.squidmath.LightRNG;
 import squidpony.squidmath.RNG;
 
@@ -55,6 +56,11 @@ public class Spill {
      * The cells that are filled by the Spill when it reaches its volume or limits will be true; others will be false.
      */
     public boolean[][] spillMap;
+    /**
+     * After multiStart(), each cell holds the index of the entry whose region filled it, or -1 if no region did. Null
+     * until multiStart() is first called.
+     */
+    public int[][] ownerMap;
 
     /**
      * The list of points that the Spill will randomly fill, starting with what is passed to start(), in order of when
@@ -84,6 +90,23 @@ public class Spill {
      */
     public LightRNG lrng;
 
+    /**
+     * When true, start() keeps the cells it may fill next in a flat int array, picking one at random and swapping the
+     * last entry into its place, with a bitset to know which cells are already waiting to be filled. Each step then
+     * takes constant time, instead of copying every waiting cell into a new array as the default mode does, which makes
+     * large spills much faster. The filled area has the same distribution as in the default mode, and the same seed
+     * always gives the same result, but the cells chosen will not be identical to the default mode's for a given seed.
+     * Defaults to false.
+     */
+    public boolean frontierSpill = false;
+    private int[] frontierCells;
+    private long[] frontierBits;
+    private boolean[] blocked;
+    private int frontierCount = 0;
+    private int[] spreadCells;
+    private int[][] regionCells;
+    private long[][] regionBits;
+
     private boolean initialized = false;
     /**
      * Construct a Spill without a level to actually scan. If you use this constructor, you must call an
@@ -251,6 +274,10 @@ public class Spill {
                 physicalMap[x][y] = level[x][y];
             }
         }
+        frontierCells = null;
+        regionCells = null;
+        regionBits = null;
+        frontierCount = 0;
         initialized = true;
         return this;
     }
@@ -274,6 +301,10 @@ public class Spill {
                 physicalMap[x][y] = (level[x][y] != '#');
             }
         }
+        frontierCells = null;
+        regionCells = null;
+        regionBits = null;
+        frontierCount = 0;
         initialized = true;
         return this;
     }
@@ -299,6 +330,10 @@ public class Spill {
                 physicalMap[x][y] = (level[x][y] != alternateWall);
             }
         }
+        frontierCells = null;
+        regionCells = null;
+        regionBits = null;
+        frontierCount = 0;
         initialized = true;
         return this;
     }
@@ -322,6 +357,7 @@ public class Spill {
         resetMap();
         spreadPattern.clear();
         fresh.clear();
+        clearFrontier();
     }
 
     /**
@@ -372,6 +408,8 @@ public class Spill {
      */
     public ArrayList<Coord> start(Coord entry, int volume, Set<Coord> impassable) {
         if(!initialized) return null;
+        if(frontierSpill)
+            return frontierStart(entry, volume, impassable);
         if(impassable == null)
             impassable = new LinkedHashSet<>();
         if(!physicalMap[entry.x][entry.y] || impassable.contains(entry))
@@ -406,6 +444,265 @@ public class Spill {
         return spreadPattern;
     }
 
+    /**
+     * The version of start() used when frontierSpill is true. Cells are ints equal to {@code x + y * width}; the cells
+     * waiting to be filled stay between calls, as fresh does in the default mode.
+     */
+    protected ArrayList<Coord> frontierStart(Coord entry, int volume, Set<Coord> impassable) {
+        if(!physicalMap[entry.x][entry.y] || (impassable != null && impassable.contains(entry)))
+            return null;
+        prepareFrontier();
+        setBlocked(impassable, true);
+        int count = frontierFill(entry.x, entry.y, volume);
+        setBlocked(impassable, false);
+        spreadPattern = new ArrayList<Coord>(count);
+        for (int i = 0; i < count; i++) {
+            spreadPattern.add(Coord.get(spreadCells[i] % width, spreadCells[i] / width));
+        }
+        filled = count;
+        return spreadPattern;
+    }
+
+    /**
+     * Like start(Coord, int, Set), but every position is an int made by Coord.encode(), and the cells this enters
+     * are returned as an int[] of encoded positions. This always uses the same engine as the frontierSpill mode, and
+     * consumes the same random numbers as start() does in that mode, so both give the same cells for the same seed;
+     * no Coord is created along the way. The spillMap and filled are updated, but spreadPattern is left unchanged.
+     *
+     * @param entry The encoded first cell to spread from, which should really be passable.
+     * @param volume The total number of cells to attempt to fill, which must be non-negative.
+     * @param impassable encoded positions of moving obstacles that cannot be filled; may be null
+     * @return the encoded cells this enters, in order starting with entry, or null if entry can't be entered
+     */
+    public int[] start(int entry, int volume, IntSet impassable) {
+        if(!initialized) return null;
+        int entryX = Coord.decodeX(entry), entryY = Coord.decodeY(entry);
+        if(entryX >= width || entryY >= height || !physicalMap[entryX][entryY]
+                || (impassable != null && impassable.contains(entry)))
+            return null;
+        prepareFrontier();
+        setBlocked(impassable, true);
+        int count = frontierFill(entryX, entryY, volume);
+        setBlocked(impassable, false);
+        int[] entered = new int[count];
+        for (int i = 0; i < count; i++) {
+            entered[i] = Coord.encode(spreadCells[i] % width, spreadCells[i] / width);
+        }
+        filled = count;
+        return entered;
+    }
+
+    private void prepareFrontier() {
+        if(frontierCells == null) {
+            int size = width * height;
+            frontierCells = new int[size];
+            frontierBits = new long[(size + 63) >>> 6];
+            blocked = new boolean[size];
+            spreadCells = new int[16];
+            frontierCount = 0;
+        }
+    }
+
+    /**
+     * Fills cells from the entry until volume cells are filled or no cells are waiting, storing the cells entered,
+     * as {@code x + y * width}, at the start of spreadCells. Cells in blocked must already be set.
+     * @return how many cells were entered
+     */
+    private int frontierFill(int entryX, int entryY, int volume) {
+        spillMap[entryX][entryY] = true;
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if(spillMap[x][y] && !blocked[x + y * width])
+                    addFrontier(x + y * width);
+            }
+        }
+
+        Direction[] dirs = (measurement == Measurement.MANHATTAN) ? Direction.CARDINALS : Direction.OUTWARDS;
+        int i, cell, x, y, adjX, adjY, adj, count = 0;
+        while (frontierCount > 0 && count < volume) {
+            i = rng.nextInt(frontierCount);
+            cell = frontierCells[i];
+            frontierCells[i] = frontierCells[--frontierCount];
+            frontierBits[cell >>> 6] &= ~(1L << cell);
+            x = cell % width;
+            y = cell / width;
+            if(count == spreadCells.length)
+                spreadCells = Arrays.copyOf(spreadCells, count << 1);
+            spreadCells[count++] = cell;
+            spillMap[x][y] = true;
+            for (int d = 0; d < dirs.length; d++) {
+                adjX = x + dirs[d].deltaX;
+                adjY = y + dirs[d].deltaY;
+                if(adjX < 0 || adjY < 0 || adjX >= width || adjY >= height)
+                    continue;
+                adj = adjX + adjY * width;
+                if (physicalMap[adjX][adjY] && !spillMap[adjX][adjY] && !blocked[adj]
+                        && (frontierBits[adj >>> 6] & (1L << adj)) == 0
+                        && rng.nextDouble() <= 1.0 / heuristic(dirs[d])) {
+                    addFrontier(adj);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Grows one region from each of several entries at the same time, so that they compete for space and never
+     * overlap, like rival fluids or the territories of factions. Regions take turns, each filling one random cell next
+     * to its own area per round, until every region has filled its volume or has no room left to grow. Returns ownerMap,
+     * where each cell holds the index in entries of the region that filled it, or -1. This also clears the spillMap and
+     * then sets it to true for all filled cells, sets spreadPattern to every filled cell in the order it was filled, and
+     * sets filled to the total count. Unlike start(), this does not extend a previous Spill; it always begins from
+     * an empty spillMap. It uses the same flat arrays as the frontierSpill mode regardless of that field's value, and
+     * the same seed always gives the same result.
+     *
+     * @param entries the first cell of each region; an entry that is impassable or shared with an earlier entry
+     *                leaves its region empty
+     * @param volumes the total number of cells each region should attempt to fill, in the same order as entries
+     * @param impassable A Set of Position keys representing the locations of moving obstacles to a
+     *                   path that cannot be moved through; this can be null if there are no such obstacles.
+     * @return ownerMap, an int[width][height] holding the index of the region that filled each cell, or -1
+     */
+    public int[][] multiStart(Coord[] entries, int[] volumes, Set<Coord> impassable) {
+        if(!initialized) return null;
+        int k = entries.length, size = width * height, words = (size + 63) >>> 6;
+        if(ownerMap == null || ownerMap.length != width || ownerMap[0].length != height)
+            ownerMap = new int[width][height];
+        for (int x = 0; x < width; x++) {
+            Arrays.fill(ownerMap[x], -1);
+        }
+        resetMap();
+        fresh.clear();
+        clearFrontier();
+        prepareFrontier();
+        if(regionCells == null || regionCells.length < k) {
+            regionCells = new int[k][];
+            regionBits = new long[k][];
+        }
+        for (int r = 0; r < k; r++) {
+            if(regionCells[r] == null) {
+                regionCells[r] = new int[16];
+                regionBits[r] = new long[words];
+            }
+        }
+        setBlocked(impassable, true);
+        spreadPattern = new ArrayList<Coord>();
+        int[] counts = new int[k], remaining = new int[k];
+        int active = 0;
+        for (int r = 0; r < k; r++) {
+            Coord entry = entries[r];
+            remaining[r] = volumes[r];
+            if(entry.x < 0 || entry.y < 0 || entry.x >= width || entry.y >= height
+                    || !physicalMap[entry.x][entry.y] || blocked[entry.x + entry.y * width])
+                continue;
+            counts[r] = addRegionFrontier(r, entry.x + entry.y * width, 0);
+            if(remaining[r] > 0)
+                active++;
+        }
+
+        Direction[] dirs = (measurement == Measurement.MANHATTAN) ? Direction.CARDINALS : Direction.OUTWARDS;
+        int i, cell, x, y, adjX, adjY, adj;
+        int[] cells;
+        long[] bits;
+        while (active > 0) {
+            active = 0;
+            for (int r = 0; r < k; r++) {
+                if(remaining[r] <= 0)
+                    continue;
+                bits = regionBits[r];
+                while (counts[r] > 0) {
+                    cells = regionCells[r];
+                    i = rng.nextInt(counts[r]);
+                    cell = cells[i];
+                    cells[i] = cells[--counts[r]];
+                    bits[cell >>> 6] &= ~(1L << cell);
+                    x = cell % width;
+                    y = cell / width;
+                    if(spillMap[x][y])
+                        continue;
+                    spillMap[x][y] = true;
+                    ownerMap[x][y] = r;
+                    spreadPattern.add(Coord.get(x, y));
+                    remaining[r]--;
+                    for (int d = 0; d < dirs.length; d++) {
+                        adjX = x + dirs[d].deltaX;
+                        adjY = y + dirs[d].deltaY;
+                        if(adjX < 0 || adjY < 0 || adjX >= width || adjY >= height)
+                            continue;
+                        adj = adjX + adjY * width;
+                        if (physicalMap[adjX][adjY] && !spillMap[adjX][adjY] && !blocked[adj]
+                                && (bits[adj >>> 6] & (1L << adj)) == 0
+                                && rng.nextDouble() <= 1.0 / heuristic(dirs[d])) {
+                            counts[r] = addRegionFrontier(r, adj, counts[r]);
+                        }
+                    }
+                    break;
+                }
+                if(remaining[r] > 0 && counts[r] > 0)
+                    active++;
+            }
+        }
+        for (int r = 0; r < k; r++) {
+            cells = regionCells[r];
+            bits = regionBits[r];
+            for (i = 0; i < counts[r]; i++) {
+                bits[cells[i] >>> 6] = 0L;
+            }
+        }
+        setBlocked(impassable, false);
+        filled = spreadPattern.size();
+        return ownerMap;
+    }
+
+    /**
+     * Adds cell to the waiting cells of region r, which has count of them now, and returns the new count.
+     */
+    private int addRegionFrontier(int r, int cell, int count) {
+        if(count == regionCells[r].length)
+            regionCells[r] = Arrays.copyOf(regionCells[r], count << 1);
+        regionBits[r][cell >>> 6] |= 1L << cell;
+        regionCells[r][count] = cell;
+        return count + 1;
+    }
+
+    private void setBlocked(Set<Coord> impassable, boolean value) {
+        if(impassable == null)
+            return;
+        for (Coord c : impassable) {
+            if(c.x >= 0 && c.y >= 0 && c.x < width && c.y < height)
+                blocked[c.x + c.y * width] = value;
+        }
+    }
+
+    private void setBlocked(IntSet impassable, boolean value) {
+        if(impassable == null)
+            return;
+        IntSet.Cursor cursor = impassable.cursor();
+        int x, y;
+        while (cursor.next()) {
+            x = Coord.decodeX(cursor.key);
+            y = Coord.decodeY(cursor.key);
+            if(x < width && y < height)
+                blocked[x + y * width] = value;
+        }
+    }
+
+    private void addFrontier(int cell) {
+        if((frontierBits[cell >>> 6] & (1L << cell)) != 0)
+            return;
+        frontierBits[cell >>> 6] |= 1L << cell;
+        frontierCells[frontierCount++] = cell;
+    }
+
+    private void clearFrontier() {
+        if(frontierCells == null)
+            return;
+        for (int i = 0; i < frontierCount; i++) {
+            frontierBits[frontierCells[i] >>> 6] = 0L;
+        }
+        frontierCount = 0;
+    }
+
     private static final double root2 = Math.sqrt(2.0);
     private double heuristic(Direction target) {
         switch (measurement) {
@@ -177,6 +177,23 @@ public class DungeonGenerator {
         dungeon = copying.dungeon;
     }
 
+    /**
+     * Changes the RNG used for all purposes in this class, including by the DungeonBoneGen and DungeonUtility this
+     * holds, the same way the constructors set it. This lets one DungeonGenerator be reused for many work units, each
+     * with its own RNG, such as a substream from {@link StatefulRNG#substream(long)}; with those, a work unit always
+     * generates the same map no matter which thread runs it or in what order. A DungeonGenerator should only be used
+     * by one thread at a time.
+     * @param rng the RNG to use from now on
+     * @return this for chaining
+     */
+    public DungeonGenerator setRng(RNG rng)
+    {
+        this.rng = rng;
+        gen.setRng(rng);
+        utility = (rng instanceof StatefulRNG) ? new DungeonUtility((StatefulRNG) rng) : new DungeonUtility(rng);
+        return this;
+    }
+
     /**
      * Turns the given percentage of floor cells into water cells, represented by '~'. Water will be clustered into
      * a random number of pools, with more appearing if needed to fill the percentage. Each pool will have randomized
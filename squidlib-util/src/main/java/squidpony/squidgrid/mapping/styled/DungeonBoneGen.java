@@ -25,7 +25,9 @@ public class DungeonBoneGen {
     }
 
     /**
-     * Sets the current RNG.
+     * Sets the current RNG. Giving each work unit its own RNG here, such as a substream from
+     * StatefulRNG.substream(), lets one DungeonBoneGen make the same map for a work unit on any thread; only use it
+     * from one thread at a time.
      * @param rng
      */
     public void setRng(RNG rng) {
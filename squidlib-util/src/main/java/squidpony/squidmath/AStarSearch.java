@@ -2,6 +2,7 @@ package squidpony.squidmath;
 
 
 import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.Queue;
@@ -52,6 +53,11 @@ public class AStarSearch {
     private Coord start, target;
     private final SearchType type;
 
+    // scratch space for pathInto(), allocated on first use and kept between calls
+    private double[] gScore, fScore;
+    private int[] from, heap, heapIndex, stamps;
+    private int stamp, heapSize;
+
     /**
      * Builds a pathing object to run searches on.
      *
@@ -161,6 +167,163 @@ public class AStarSearch {
         return deq;
     }
 
+    /**
+     * Finds an A* path to the target from the start, like path(), but without
+     * allocating anything after the first call. The open set is a binary heap
+     * of cell indices, and the scratch arrays are reused between calls, so long
+     * paths on large maps take time close to proportional to the number of
+     * cells explored instead of growing with the size of the open set.
+     *
+     * Each step is written to path as the int index x + y * width, in order
+     * from the first step after the start to the target, which is the same
+     * order the Coords in path()'s Queue have. Moving into a cell costs 1 plus
+     * its value in the map, and negative cells cannot be entered, also like
+     * path(); when several paths are equally short, this may choose a different
+     * one than path() does.
+     *
+     * @param startx the x coordinate of the start location
+     * @param starty the y coordinate of the start location
+     * @param targetx the x coordinate of the target location
+     * @param targety the y coordinate of the target location
+     * @param path receives the steps of the path; if it is too short, only the
+     *             first path.length steps are written
+     * @return the number of steps in the path, which may be more than the
+     *         length of path, or -1 if there is no path
+     */
+    public int pathInto(int startx, int starty, int targetx, int targety, int[] path) {
+        if (startx < 0 || starty < 0 || startx >= width || starty >= height
+                || targetx < 0 || targety < 0 || targetx >= width || targety >= height) {
+            return -1;
+        }
+        int size = width * height;
+        if (stamps == null) {
+            gScore = new double[size];
+            fScore = new double[size];
+            from = new int[size];
+            heap = new int[size];
+            heapIndex = new int[size];
+            stamps = new int[size];
+        }
+        if (++stamp == 0) {
+            // the stamp wrapped around, so old marks could look current
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        Direction[] dirs = (type == SearchType.MANHATTAN) ? Direction.CARDINALS : Direction.OUTWARDS;
+        int startIndex = startx + starty * width, targetIndex = targetx + targety * width;
+        heapSize = 0;
+        stamps[startIndex] = stamp;
+        gScore[startIndex] = 0;
+        from[startIndex] = -1;
+        heapIndex[startIndex] = -1;
+        pushOrUpdate(startIndex, heuristic(startx, starty, targetx, targety));
+
+        int current, cx, cy, x, y, next;
+        double g;
+        while (heapSize > 0) {
+            current = popSmallest();
+            if (current == targetIndex) {
+                int length = 0;
+                for (int c = current; c != startIndex; c = from[c]) {
+                    length++;
+                }
+                int n = length;
+                for (int c = current; c != startIndex; c = from[c]) {
+                    if (--n < path.length) {
+                        path[n] = c;
+                    }
+                }
+                return length;
+            }
+            cx = current % width;
+            cy = current / width;
+            for (Direction dir : dirs) {
+                x = cx + dir.deltaX;
+                y = cy + dir.deltaY;
+                if (x < 0 || x >= width || y < 0 || y >= height || map[x][y] < 0) {
+                    continue;
+                }
+                next = x + y * width;
+                g = gScore[current] + map[x][y] + 1;
+                if (stamps[next] != stamp) {
+                    stamps[next] = stamp;
+                    heapIndex[next] = -1;
+                } else if (heapIndex[next] == -2 || g >= gScore[next]) {
+                    continue; // already finished, or no better than the known way to reach it
+                }
+                gScore[next] = g;
+                from[next] = current;
+                pushOrUpdate(next, g + heuristic(x, y, targetx, targety));
+            }
+        }
+        return -1;
+    }
+
+    private double heuristic(int x, int y, int targetx, int targety) {
+        switch (type) {
+            case MANHATTAN:
+                return Math.abs(x - targetx) + Math.abs(y - targety);
+            case CHEBYSHEV:
+                return Math.max(Math.abs(x - targetx), Math.abs(y - targety));
+            case EUCLIDEAN:
+                int xDist = x - targetx, yDist = y - targety;
+                return Math.sqrt(xDist * xDist + yDist * yDist);
+            case DIJKSTRA:
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Orders cells by f, breaking ties in favor of the cell farther from the start, which tends to explore fewer
+     * cells along straight corridors.
+     */
+    private boolean before(int a, int b) {
+        return fScore[a] < fScore[b] || (fScore[a] == fScore[b] && gScore[a] > gScore[b]);
+    }
+
+    private void pushOrUpdate(int cell, double f) {
+        fScore[cell] = f;
+        int pos = heapIndex[cell];
+        if (pos < 0) {
+            pos = heapSize++;
+        }
+        // f only ever decreases for a cell already in the heap, so it only needs to move up
+        int parentPos;
+        while (pos > 0) {
+            parentPos = (pos - 1) >>> 1;
+            if (!before(cell, heap[parentPos])) {
+                break;
+            }
+            heap[pos] = heap[parentPos];
+            heapIndex[heap[pos]] = pos;
+            pos = parentPos;
+        }
+        heap[pos] = cell;
+        heapIndex[cell] = pos;
+    }
+
+    private int popSmallest() {
+        int top = heap[0], last = heap[--heapSize], pos = 0, child;
+        heapIndex[top] = -2;
+        if (heapSize > 0) {
+            while ((child = (pos << 1) + 1) < heapSize) {
+                if (child + 1 < heapSize && before(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!before(heap[child], last)) {
+                    break;
+                }
+                heap[pos] = heap[child];
+                heapIndex[heap[pos]] = pos;
+                pos = child;
+            }
+            heap[pos] = last;
+            heapIndex[last] = pos;
+        }
+        return top;
+    }
+
     /**
      * Finds the g value for the given location.
      *
@@ -0,0 +1,502 @@
+package squidpony.squidmath;
+
+import squidpony.squidgrid.Direction;
+
+import java.util.Arrays;
+
+/**
+ * A 2D region of on/off cells stored as bits in a long[], for dense areas such as rooms or flood fills where
+ * CoordPacker's run-length encoding would be slower to work with. Set operations (and, or, xor, andNot, not) work on
+ * 64 cells at a time, and the morphology operations expand(), retract(), and shift() move whole words at once instead
+ * of looping over cells, which makes area-of-effect shapes and repeated flood-fill steps cheap.
+ * <br>
+ * The layout is the same as the bitsets made by FOV.calculateVisibility(): each x position uses stride longs, and
+ * cell x,y is bit (y &amp; 63) of data[x * stride + (y &gt;&gt; 6)]. Bits past height in the last long of each column are
+ * always kept at 0. Regions can be converted losslessly to and from boolean[][] and CoordPacker's packed short[].
+ * <br>
+ * Most operations change this BitGrid in place and return it, so calls can be chained.
+ */
+public class BitGrid {
+    /**
+     * The dimensions of the region.
+     */
+    public final int width, height;
+    /**
+     * How many longs each x position uses; equal to (height + 63) / 64.
+     */
+    public final int stride;
+    /**
+     * The bits of the region; see the class documentation for the layout.
+     */
+    public final long[] data;
+
+    private final long lastMask;
+    private long[] scratch;
+
+    /**
+     * Creates an empty region with the given dimensions.
+     * @param width the width of the region
+     * @param height the height of the region
+     */
+    public BitGrid(int width, int height) {
+        this(new long[width * ((height + 63) >>> 6)], width, height);
+    }
+
+    /**
+     * Wraps an existing long[] in the layout described in the class documentation, such as the result of
+     * FOV.calculateVisibility() or FOVCache.getVisibility(), without copying it. Changes to this BitGrid will change
+     * the array.
+     * @param data a long[] with at least width * ((height + 63) / 64) elements
+     * @param width the width of the region
+     * @param height the height of the region
+     */
+    public BitGrid(long[] data, int width, int height) {
+        if (width <= 0 || height <= 0)
+            throw new UnsupportedOperationException("BitGrid dimensions must be positive");
+        this.width = width;
+        this.height = height;
+        stride = (height + 63) >>> 6;
+        if (data.length < width * stride)
+            throw new ArrayIndexOutOfBoundsException("BitGrid data is too small for the given dimensions");
+        this.data = data;
+        lastMask = -1L >>> (-height & 63);
+    }
+
+    /**
+     * Creates a region with the same dimensions as map, with cells on where map is true.
+     * @param map a rectangular boolean[][]
+     */
+    public BitGrid(boolean[][] map) {
+        this(map.length, map[0].length);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (map[x][y])
+                    data[x * stride + (y >> 6)] |= 1L << y;
+            }
+        }
+    }
+
+    /**
+     * Creates a region from a short[] packed by CoordPacker, with the given dimensions, which should match those of
+     * the packed map.
+     * @param packed a short[] returned by CoordPacker.pack() or a similar method
+     * @param width the width of the region
+     * @param height the height of the region
+     */
+    public BitGrid(short[] packed, int width, int height) {
+        this(width, height);
+        boolean on = false;
+        int idx = 0, x, y;
+        for (int p = 0; p < packed.length; p++, on = !on) {
+            if (on) {
+                for (int toSkip = idx + (packed[p] & 0xffff); idx < toSkip; idx++) {
+                    x = CoordPacker.hilbertX[idx];
+                    y = CoordPacker.hilbertY[idx];
+                    if (x < width && y < height)
+                        data[x * stride + (y >> 6)] |= 1L << y;
+                }
+            } else {
+                idx += packed[p] & 0xffff;
+            }
+        }
+    }
+
+    /**
+     * Copy constructor; the new BitGrid has its own data.
+     * @param other another BitGrid
+     */
+    public BitGrid(BitGrid other) {
+        this(Arrays.copyOf(other.data, other.data.length), other.width, other.height);
+    }
+
+    /**
+     * @return a copy of this BitGrid with its own data
+     */
+    public BitGrid copy() {
+        return new BitGrid(this);
+    }
+
+    public boolean get(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height && (data[x * stride + (y >> 6)] & (1L << y)) != 0;
+    }
+
+    public BitGrid set(int x, int y, boolean value) {
+        if (x >= 0 && y >= 0 && x < width && y < height) {
+            if (value)
+                data[x * stride + (y >> 6)] |= 1L << y;
+            else
+                data[x * stride + (y >> 6)] &= ~(1L << y);
+        }
+        return this;
+    }
+
+    public BitGrid clear() {
+        Arrays.fill(data, 0, width * stride, 0L);
+        return this;
+    }
+
+    /**
+     * Turns on every cell in the region.
+     * @return this, for chaining
+     */
+    public BitGrid fill() {
+        Arrays.fill(data, 0, width * stride, -1L);
+        return trim();
+    }
+
+    /**
+     * Keeps only the cells that are on in both this and other, which must have the same dimensions.
+     * @param other another BitGrid with the same dimensions
+     * @return this, for chaining
+     */
+    public BitGrid and(BitGrid other) {
+        for (int i = width * stride - 1; i >= 0; i--) {
+            data[i] &= other.data[i];
+        }
+        return this;
+    }
+
+    /**
+     * Turns on the cells that are on in other, which must have the same dimensions.
+     * @param other another BitGrid with the same dimensions
+     * @return this, for chaining
+     */
+    public BitGrid or(BitGrid other) {
+        for (int i = width * stride - 1; i >= 0; i--) {
+            data[i] |= other.data[i];
+        }
+        return this;
+    }
+
+    /**
+     * Keeps only the cells that are on in exactly one of this and other, which must have the same dimensions.
+     * @param other another BitGrid with the same dimensions
+     * @return this, for chaining
+     */
+    public BitGrid xor(BitGrid other) {
+        for (int i = width * stride - 1; i >= 0; i--) {
+            data[i] ^= other.data[i];
+        }
+        return this;
+    }
+
+    /**
+     * Turns off the cells that are on in other, which must have the same dimensions.
+     * @param other another BitGrid with the same dimensions
+     * @return this, for chaining
+     */
+    public BitGrid andNot(BitGrid other) {
+        for (int i = width * stride - 1; i >= 0; i--) {
+            data[i] &= ~other.data[i];
+        }
+        return this;
+    }
+
+    /**
+     * Turns on every cell that was off and turns off every cell that was on.
+     * @return this, for chaining
+     */
+    public BitGrid not() {
+        for (int i = width * stride - 1; i >= 0; i--) {
+            data[i] = ~data[i];
+        }
+        return trim();
+    }
+
+    /**
+     * Moves every on cell by dx and dy; cells moved outside the region are lost, and cells left behind are off.
+     * @param dx how far to move in x; positive values move right
+     * @param dy how far to move in y; positive values move down
+     * @return this, for chaining
+     */
+    public BitGrid shift(int dx, int dy) {
+        if (dx >= width || -dx >= width || dy >= height || -dy >= height)
+            return clear();
+        if (dx > 0) {
+            System.arraycopy(data, 0, data, dx * stride, (width - dx) * stride);
+            Arrays.fill(data, 0, dx * stride, 0L);
+        } else if (dx < 0) {
+            System.arraycopy(data, -dx * stride, data, 0, (width + dx) * stride);
+            Arrays.fill(data, (width + dx) * stride, width * stride, 0L);
+        }
+        if (dy != 0) {
+            int words = (dy < 0 ? -dy : dy) >>> 6, bits = (dy < 0 ? -dy : dy) & 63, src;
+            long low, high;
+            for (int x = 0, start = 0; x < width; x++, start += stride) {
+                if (dy > 0) {
+                    for (int w = stride - 1; w >= 0; w--) {
+                        src = w - words;
+                        low = src >= 0 ? data[start + src] : 0L;
+                        high = src - 1 >= 0 ? data[start + src - 1] : 0L;
+                        data[start + w] = bits == 0 ? low : (low << bits) | (high >>> (64 - bits));
+                    }
+                } else {
+                    for (int w = 0; w < stride; w++) {
+                        src = w + words;
+                        low = src < stride ? data[start + src] : 0L;
+                        high = src + 1 < stride ? data[start + src + 1] : 0L;
+                        data[start + w] = bits == 0 ? low : (low >>> bits) | (high << (64 - bits));
+                    }
+                }
+            }
+            trim();
+        }
+        return this;
+    }
+
+    /**
+     * Moves every on cell one step in the given direction, as with shift(dir.deltaX, dir.deltaY).
+     * @param dir the Direction to move in
+     * @return this, for chaining
+     */
+    public BitGrid shift(Direction dir) {
+        return shift(dir.deltaX, dir.deltaY);
+    }
+
+    /**
+     * Dilates the region by one cell, turning on every cell next to an on cell in the four cardinal directions.
+     * @return this, for chaining
+     */
+    public BitGrid expand() {
+        return morph(true, false);
+    }
+
+    /**
+     * Dilates the region by one cell, turning on every cell next to an on cell in any of the eight directions.
+     * @return this, for chaining
+     */
+    public BitGrid expand8way() {
+        return morph(true, true);
+    }
+
+    /**
+     * Erodes the region by one cell, turning off every cell that has an off cell or the edge of the region next to it
+     * in any of the four cardinal directions.
+     * @return this, for chaining
+     */
+    public BitGrid retract() {
+        return morph(false, false);
+    }
+
+    /**
+     * Erodes the region by one cell, turning off every cell that has an off cell or the edge of the region next to it
+     * in any of the eight directions.
+     * @return this, for chaining
+     */
+    public BitGrid retract8way() {
+        return morph(false, true);
+    }
+
+    /**
+     * Combines each word with its neighbors in y (by shifting bits, carrying across words) and in x (by reading the
+     * neighboring columns), using OR to dilate or AND to erode. Cells outside the region count as off.
+     */
+    private BitGrid morph(boolean dilate, boolean eightWay) {
+        int size = width * stride;
+        if (scratch == null)
+            scratch = new long[size];
+        long acc;
+        for (int x = 0, i = 0; x < width; x++) {
+            for (int w = 0; w < stride; w++, i++) {
+                acc = data[i];
+                acc = dilate ? acc | up(i, w) | down(i, w) : acc & up(i, w) & down(i, w);
+                for (int side = -1; side <= 1; side += 2) {
+                    if (x + side < 0 || x + side >= width) {
+                        if (!dilate)
+                            acc = 0L;
+                        continue;
+                    }
+                    int j = i + side * stride;
+                    if (dilate) {
+                        acc |= data[j];
+                        if (eightWay)
+                            acc |= up(j, w) | down(j, w);
+                    } else {
+                        acc &= data[j];
+                        if (eightWay)
+                            acc &= up(j, w) & down(j, w);
+                    }
+                }
+                scratch[i] = acc;
+            }
+        }
+        System.arraycopy(scratch, 0, data, 0, size);
+        return trim();
+    }
+
+    /**
+     * The word at i with every cell taking the value of the cell above it (at y - 1).
+     */
+    private long up(int i, int w) {
+        return (data[i] << 1) | (w > 0 ? data[i - 1] >>> 63 : 0L);
+    }
+
+    /**
+     * The word at i with every cell taking the value of the cell below it (at y + 1).
+     */
+    private long down(int i, int w) {
+        return (data[i] >>> 1) | (w + 1 < stride ? data[i + 1] << 63 : 0L);
+    }
+
+    /**
+     * Clears the unused bits past height in the last word of each column.
+     */
+    private BitGrid trim() {
+        for (int i = stride - 1; i < width * stride; i += stride) {
+            data[i] &= lastMask;
+        }
+        return this;
+    }
+
+    /**
+     * @return how many cells are on
+     */
+    public int count() {
+        int c = 0;
+        for (int i = width * stride - 1; i >= 0; i--) {
+            c += Long.bitCount(data[i]);
+        }
+        return c;
+    }
+
+    /**
+     * @return true if no cells are on
+     */
+    public boolean isEmpty() {
+        for (int i = width * stride - 1; i >= 0; i--) {
+            if (data[i] != 0L)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if any cell is on in both this and other, without changing either.
+     * @param other another BitGrid with the same dimensions
+     * @return true if this and other share at least one on cell
+     */
+    public boolean intersects(BitGrid other) {
+        for (int i = width * stride - 1; i >= 0; i--) {
+            if ((data[i] & other.data[i]) != 0L)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the first on cell, going through x and then y in increasing order, or null if no cells are on. Together
+     * with next(), this iterates through on cells without allocating for positions in Coord's pool.
+     * @return the first on cell, or null if there is none
+     */
+    public Coord first() {
+        return find(0);
+    }
+
+    /**
+     * Gets the next on cell after the given one, in the same order as first(), or null if there are no more.
+     * @param previous a cell returned by first() or next()
+     * @return the next on cell, or null if there is none
+     */
+    public Coord next(Coord previous) {
+        return find(previous.x * stride * 64 + previous.y + 1);
+    }
+
+    private Coord find(int bit) {
+        int i = bit >>> 6, size = width * stride;
+        if (i >= size)
+            return null;
+        long word = data[i] & (-1L << bit);
+        while (word == 0L) {
+            if (++i >= size)
+                return null;
+            word = data[i];
+        }
+        return Coord.get(i / stride, ((i % stride) << 6) | Long.numberOfTrailingZeros(word));
+    }
+
+    /**
+     * @return every on cell as a Coord[], in the same order as first() and next()
+     */
+    public Coord[] asCoords() {
+        Coord[] cs = new Coord[count()];
+        int n = 0;
+        long word;
+        for (int x = 0, i = 0; x < width; x++) {
+            for (int w = 0; w < stride; w++, i++) {
+                word = data[i];
+                while (word != 0L) {
+                    cs[n++] = Coord.get(x, (w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1L;
+                }
+            }
+        }
+        return cs;
+    }
+
+    /**
+     * @return a boolean[width][height] with true for on cells
+     */
+    public boolean[][] toBooleans() {
+        boolean[][] map = new boolean[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                map[x][y] = (data[x * stride + (y >> 6)] & (1L << y)) != 0;
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Packs this region with CoordPacker; width and height must each be at most 256.
+     * @return a packed short[] that can be used with any of CoordPacker's methods
+     */
+    public short[] toPacked() {
+        if (width > 256 || height > 256)
+            throw new UnsupportedOperationException("BitGrid is too large to pack; use CoordPacker.packTiled()");
+        ShortVLA packing = new ShortVLA(64);
+        boolean on = false, current;
+        int skip = 0, x, y;
+        for (int i = 0, ml = 0, mapLimit = width * height; i < 0x10000 && ml < mapLimit; i++, skip++) {
+            x = CoordPacker.hilbertX[i];
+            y = CoordPacker.hilbertY[i];
+            if (x >= width || y >= height)
+                current = false;
+            else {
+                ml++;
+                current = (data[x * stride + (y >> 6)] & (1L << y)) != 0;
+            }
+            if (current != on) {
+                packing.add((short) skip);
+                skip = 0;
+                on = current;
+            }
+        }
+        if (on)
+            packing.add((short) skip);
+        if (packing.size == 0)
+            return CoordPacker.ALL_WALL;
+        return packing.shrink();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BitGrid)) return false;
+        BitGrid other = (BitGrid) o;
+        if (width != other.width || height != other.height) return false;
+        for (int i = width * stride - 1; i >= 0; i--) {
+            if (data[i] != other.data[i])
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        long h = width * 31L + height;
+        for (int i = width * stride - 1; i >= 0; i--) {
+            h = h * 31L + data[i];
+        }
+        return (int) (h ^ h >>> 32);
+    }
+}
@@ -0,0 +1,147 @@
+package squidpony.squidmath;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An RNG that can be shared by many threads without them waiting on each other. Each thread that uses it gets its own
+ * LightRNG, a substream of one root LightRNG seeded with this object's seed, so no two threads ever see the same
+ * numbers and no call takes a lock; even nextGaussian(), which is synchronized in RNG, keeps its spare value per
+ * thread here. Threads are given substreams in the order they first use this object, which depends on scheduling, so
+ * results per thread are only reproducible if threads start in a fixed order.
+ * <br>
+ * For simulations that must give the same results on any number of threads, use forTask() instead: it makes a new
+ * StatefulRNG for a task id, without ThreadLocal or any shared state, so a task gets the same numbers wherever and
+ * whenever it runs. Task substreams never overlap the ones given to threads, as long as there are fewer than 2 to the
+ * 23 of each.
+ */
+public class ConcurrentRNG extends RNG {
+    /**
+     * The seed of the root LightRNG that every thread's and task's substream comes from.
+     */
+    public final long seed;
+
+    /**
+     * Keeps a LightRNG and a spare Gaussian value for each thread.
+     */
+    private static final class Stream {
+        final LightRNG random;
+        double nextNextGaussian;
+        boolean haveNextNextGaussian = false;
+
+        Stream(LightRNG random) {
+            this.random = random;
+        }
+    }
+
+    /**
+     * The RandomnessSource held by a ConcurrentRNG, which hands each call to the calling thread's LightRNG.
+     */
+    private static final class PerThreadSource implements RandomnessSource {
+        private final LightRNG root;
+        private final AtomicLong threads = new AtomicLong();
+        private final ThreadLocal<Stream> streams = new ThreadLocal<Stream>() {
+            @Override
+            protected Stream initialValue() {
+                return new Stream(root.substream(-1L - threads.getAndIncrement()));
+            }
+        };
+
+        PerThreadSource(long seed) {
+            root = new LightRNG(seed);
+        }
+
+        @Override
+        public int next(int bits) {
+            return streams.get().random.next(bits);
+        }
+
+        @Override
+        public void nextInts(int[] out, int bound) {
+            streams.get().random.nextInts(out, bound);
+        }
+
+        @Override
+        public void nextLongs(long[] out) {
+            streams.get().random.nextLongs(out);
+        }
+
+        @Override
+        public void nextDoubles(double[] out) {
+            streams.get().random.nextDoubles(out);
+        }
+    }
+
+    /**
+     * Creates a ConcurrentRNG with a random seed.
+     */
+    public ConcurrentRNG() {
+        this((long) Math.floor(Math.random() * Long.MAX_VALUE));
+    }
+
+    /**
+     * Creates a ConcurrentRNG whose threads and tasks all get substreams of a LightRNG with the given seed.
+     * @param seed any long
+     */
+    public ConcurrentRNG(long seed) {
+        super(new PerThreadSource(seed));
+        this.seed = seed;
+    }
+
+    /**
+     * Makes a new StatefulRNG for the given task, using substream(taskId) of a LightRNG with this object's seed. The
+     * result only depends on the seed and taskId, not on which thread calls this or when, so a simulation split into
+     * numbered tasks gives the same results no matter how many threads run it. This doesn't use or change any state
+     * shared between threads. The StatefulRNG it returns is not thread-safe; keep it for the task that asked for it.
+     * @param taskId a non-negative number identifying the task
+     * @return a new StatefulRNG that only this task should use
+     */
+    public StatefulRNG forTask(long taskId) {
+        return new StatefulRNG(new LightRNG(seed).substream(taskId));
+    }
+
+    /**
+     * Gets the LightRNG the calling thread uses, which can have its state read and set by that thread.
+     * @return the calling thread's LightRNG
+     */
+    public LightRNG threadRandomness() {
+        return ((PerThreadSource) random).streams.get().random;
+    }
+
+    /**
+     * Like RNG's nextGaussian(), but without a lock; each thread keeps its own spare value.
+     * @return a value from the gaussian distribution
+     */
+    @Override
+    public double nextGaussian() {
+        Stream stream = ((PerThreadSource) random).streams.get();
+        if (stream.haveNextNextGaussian) {
+            stream.haveNextNextGaussian = false;
+            return stream.nextNextGaussian;
+        } else {
+            double v1, v2, s;
+            do {
+                v1 = 2 * stream.random.nextDouble() - 1; // between -1 and 1
+                v2 = 2 * stream.random.nextDouble() - 1; // between -1 and 1
+                s = v1 * v1 + v2 * v2;
+            } while (s >= 1 || s == 0);
+            double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+            stream.nextNextGaussian = v2 * multiplier;
+            stream.haveNextNextGaussian = true;
+            return v1 * multiplier;
+        }
+    }
+
+    /**
+     * Not supported; every thread's RandomnessSource comes from the seed.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void setRandomness(RandomnessSource random) {
+        throw new UnsupportedOperationException("ConcurrentRNG always uses per-thread LightRNGs");
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentRNG{" + Long.toHexString(seed) + "}";
+    }
+}
@@ -1,6 +1,6 @@
 package squidpony.squidmath;
 
-import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import squidpony.squidgrid.Direction;
 
@@ -27,11 +27,22 @@ public class Coord implements java.io.Serializable {
         this.x = x;
         this.y = y;
     }
+    /**
+     * Gets the Coord with the given x and y. Coords with x and y from -3 to 255 come from a fixed pool, and Coords with
+     * x and y from 0 to 16383 come from a pool that is filled in lazily, 64x64 cells at a time, so this does not
+     * allocate for either once a part of the map has been used. Other positions get a new Coord every time. This is
+     * safe to call from any thread, and every thread gets the same pooled instances.
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return a Coord with the given x and y, shared with other callers if it is in a pool
+     */
     public static Coord get(int x, int y)
     {
-        if(x >= -3 && y >= -3 && x < POOL.length - 3 && y < POOL[x + 3].length - 3)
+        if(x >= -3 && y >= -3 && x < 256 && y < 256)
             return POOL[x + 3][y + 3];
-        else return new Coord(x, y);
+        if(x < 0 || y < 0 || x >= CHUNK_LIMIT || y >= CHUNK_LIMIT)
+            return new Coord(x, y);
+        return chunk(x >>> CHUNK_SHIFT, y >>> CHUNK_SHIFT)[(x & CHUNK_MASK) << CHUNK_SHIFT | (y & CHUNK_MASK)];
     }
 
     public Coord getLocation()
@@ -85,6 +96,58 @@ public class Coord implements java.io.Serializable {
         return get(this.x, y);
     }
 
+    /**
+     * Packs x and y into one int, with x in the upper 16 bits and y in the lower 16, for use with IntSet, IntDoubleMap,
+     * and the methods that take them in place of Coord collections. Only x and y from 0 to 65535 survive the trip
+     * through decodeX() and decodeY(); that covers any map position.
+     * @param x the x-coordinate, from 0 to 65535
+     * @param y the y-coordinate, from 0 to 65535
+     * @return an int encoding both x and y
+     */
+    public static int encode(int x, int y)
+    {
+        return x << 16 | (y & 0xFFFF);
+    }
+
+    /**
+     * Packs this Coord's x and y into one int, the same as Coord.encode(x, y).
+     * @return an int encoding both x and y
+     */
+    public int encode()
+    {
+        return x << 16 | (y & 0xFFFF);
+    }
+
+    /**
+     * Gets the x-coordinate from an int made by encode().
+     * @param code an int made by encode()
+     * @return the x-coordinate
+     */
+    public static int decodeX(int code)
+    {
+        return code >>> 16;
+    }
+
+    /**
+     * Gets the y-coordinate from an int made by encode().
+     * @param code an int made by encode()
+     * @return the y-coordinate
+     */
+    public static int decodeY(int code)
+    {
+        return code & 0xFFFF;
+    }
+
+    /**
+     * Gets the Coord for an int made by encode(), usually from a pool.
+     * @param code an int made by encode()
+     * @return the Coord with the x and y in code
+     */
+    public static Coord decode(int code)
+    {
+        return get(code >>> 16, code & 0xFFFF);
+    }
+
     @Override
     public String toString()
     {
@@ -108,7 +171,7 @@ public class Coord implements java.io.Serializable {
             return false;
         }
     }
-    private static Coord[][] POOL = new Coord[259][259];
+    private static final Coord[][] POOL = new Coord[259][259];
     static {
         int width = POOL.length, height = POOL[0].length;
         for (int i = 0; i < width; i++) {
@@ -117,16 +180,58 @@ public class Coord implements java.io.Serializable {
             }
         }
     }
+
+    private static final int CHUNK_SHIFT = 6, CHUNK_MASK = (1 << CHUNK_SHIFT) - 1, CHUNK_COUNT = 256,
+            CHUNK_LIMIT = CHUNK_COUNT << CHUNK_SHIFT;
+    /**
+     * The lazily-filled pool, as columns of chunks indexed by {@code x >>> CHUNK_SHIFT}, then chunks indexed by
+     * {@code y >>> CHUNK_SHIFT}. Columns and chunks are only ever set once, with compareAndSet, so any thread that sees
+     * one also sees all the Coords in it.
+     */
+    private static final AtomicReferenceArray<AtomicReferenceArray<Coord[]>> CHUNKS =
+            new AtomicReferenceArray<AtomicReferenceArray<Coord[]>>(CHUNK_COUNT);
+
+    /**
+     * Gets the chunk of pooled Coords at the given chunk position, making it first if no thread has yet.
+     */
+    private static Coord[] chunk(int cx, int cy)
+    {
+        AtomicReferenceArray<Coord[]> column = CHUNKS.get(cx);
+        if(column == null) {
+            CHUNKS.compareAndSet(cx, null, new AtomicReferenceArray<Coord[]>(CHUNK_COUNT));
+            column = CHUNKS.get(cx);
+        }
+        Coord[] chunk = column.get(cy);
+        if(chunk == null) {
+            chunk = new Coord[1 << (CHUNK_SHIFT << 1)];
+            int x, y;
+            for (int i = 0; i < chunk.length; i++) {
+                x = cx << CHUNK_SHIFT | i >>> CHUNK_SHIFT;
+                y = cy << CHUNK_SHIFT | i & CHUNK_MASK;
+                chunk[i] = (x < 256 && y < 256) ? POOL[x + 3][y + 3] : new Coord(x, y);
+            }
+            if(!column.compareAndSet(cy, null, chunk))
+                chunk = column.get(cy);
+        }
+        return chunk;
+    }
+
+    /**
+     * Makes sure every Coord with x from -3 to 255 + xIncrease and y from -3 to 255 + yIncrease is pooled, up to the
+     * largest pooled position of 16383 on each axis. Coord.get() fills in the pool on its own as it is used, so this
+     * is only needed to avoid doing that work later, such as while a game is running. Safe to call from any thread.
+     * @param xIncrease how far past 255 on the x-axis to fill the pool
+     * @param yIncrease how far past 255 on the y-axis to fill the pool
+     */
     public static void expandPool(int xIncrease, int yIncrease)
     {
         if(xIncrease < 0 || yIncrease < 0)
             return;
-        int width = POOL.length, height = POOL[0].length;
-        POOL = Arrays.copyOf(POOL, width + xIncrease);
-        for (int i = 0; i < width + xIncrease; i++) {
-            POOL[i] = Arrays.copyOf(POOL[i], height + yIncrease);
-            for (int j = 0; j < height + yIncrease; j++) {
-                if(POOL[i][j] == null) POOL[i][j] = new Coord(i - 3, j - 3);
+        int width = Math.min(256 + xIncrease, CHUNK_LIMIT), height = Math.min(256 + yIncrease, CHUNK_LIMIT);
+        for (int cx = 0; cx << CHUNK_SHIFT < width; cx++) {
+            for (int cy = 0; cy << CHUNK_SHIFT < height; cy++) {
+                if((cx + 1) << CHUNK_SHIFT > 256 || (cy + 1) << CHUNK_SHIFT > 256)
+                    chunk(cx, cy);
             }
         }
     }
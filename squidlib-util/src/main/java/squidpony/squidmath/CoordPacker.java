@@ -915,6 +915,414 @@ public class CoordPacker {
         return intersectPacked(left, negatePacked(right));
     }
 
+    /**
+     * Combines any number of packed arrays into one region containing every cell that is "on" in at least one of
+     * them, in a single pass without building intermediate results. This is equivalent to calling unionPacked()
+     * repeatedly, but much faster and allocates only the result when there are many operands, such as when merging
+     * the FOV of every monster on a level.
+     * @param packed any number of short[] returned by pack() or sub-arrays of what packMulti() returns
+     * @return a packed short[] encoding the union of all of packed
+     */
+    public static short[] unionPackedMany(short[]... packed)
+    {
+        return mergePacked(1, packed);
+    }
+
+    /**
+     * Combines any number of packed arrays into one region containing only the cells that are "on" in all of them,
+     * in a single pass without building intermediate results.
+     * @param packed any number of short[] returned by pack() or sub-arrays of what packMulti() returns
+     * @return a packed short[] encoding the intersection of all of packed
+     */
+    public static short[] intersectPackedMany(short[]... packed)
+    {
+        return mergePacked(packed.length, packed);
+    }
+
+    /**
+     * Finds the cells that are "on" in at least k of the given packed arrays, in a single pass. With k equal to 1,
+     * this is the same as unionPackedMany(), and with k equal to the number of packed arrays, it is the same as
+     * intersectPackedMany(); values in between can find, for example, the cells seen by at least 3 guards.
+     * @param k how many of the packed arrays must have a cell "on" for it to be "on" in the result
+     * @param packed any number of short[] returned by pack() or sub-arrays of what packMulti() returns
+     * @return a packed short[] encoding the cells that are "on" in at least k of packed
+     */
+    public static short[] countPackedAtLeast(int k, short[]... packed)
+    {
+        return mergePacked(k, packed);
+    }
+
+    /**
+     * Sweeps along the Hilbert Curve over every packed array at once, keeping a min-heap of the operands ordered by
+     * where their current run ends, and tracking how many operands are "on" between run boundaries.
+     */
+    private static short[] mergePacked(int threshold, short[][] packed)
+    {
+        if(threshold < 1)
+            threshold = 1;
+        int n = packed.length, size = 0;
+        int[] elem = new int[n], bound = new int[n], heap = new int[n];
+        for (int i = 0; i < n; i++) {
+            if(packed[i].length > 0) {
+                bound[i] = packed[i][0] & 0xffff;
+                size = siftUp(heap, bound, size, i);
+            }
+        }
+        ShortVLA packing = new ShortVLA(64);
+        int onCount = 0, last = 0, pos, i;
+        boolean on = false;
+        while (size > 0) {
+            pos = bound[heap[0]];
+            while (size > 0 && bound[heap[0]] == pos) {
+                i = heap[0];
+                // the run at elem[i] ends here; even elements are "off" runs, so "on" starts after them
+                onCount += ((elem[i] & 1) == 0) ? 1 : -1;
+                if(++elem[i] < packed[i].length) {
+                    bound[i] = pos + (packed[i][elem[i]] & 0xffff);
+                }
+                else {
+                    heap[0] = heap[--size];
+                }
+                siftDown(heap, bound, size);
+            }
+            if(on != (onCount >= threshold)) {
+                packing.add((short) (pos - last));
+                last = pos;
+                on = !on;
+            }
+        }
+        if(on)
+            packing.add((short) (0x10000 - last));
+        if(packing.size == 0)
+            return ALL_WALL;
+        return packing.shrink();
+    }
+
+    private static int siftUp(int[] heap, int[] keys, int size, int item)
+    {
+        int pos = size, parent;
+        while (pos > 0) {
+            parent = (pos - 1) >>> 1;
+            if(keys[heap[parent]] <= keys[item])
+                break;
+            heap[pos] = heap[parent];
+            pos = parent;
+        }
+        heap[pos] = item;
+        return size + 1;
+    }
+
+    private static void siftDown(int[] heap, int[] keys, int size)
+    {
+        if(size == 0)
+            return;
+        int item = heap[0], pos = 0, child;
+        while ((child = (pos << 1) + 1) < size) {
+            if(child + 1 < size && keys[heap[child + 1]] < keys[heap[child]])
+                child++;
+            if(keys[heap[child]] >= keys[item])
+                break;
+            heap[pos] = heap[child];
+            pos = child;
+        }
+        heap[pos] = item;
+    }
+
+    /**
+     * Compresses a boolean[][] of any size, including maps larger than 256x256, by splitting it into tiles of up to
+     * 256x256 cells and packing each tile with pack(). The result is indexed by [tileX][tileY], where the tile at
+     * [tileX][tileY] covers the cells from x = tileX * 256 and y = tileY * 256 up to 255 more cells in each dimension
+     * (fewer at the right and bottom edges of the map). Tiles with no "on" cells are all ALL_WALL and take no
+     * memory beyond a reference, so sparse data such as FOV on a huge map stays about as small as it would be on a
+     * single 256x256 map. Use unpackTiled(), queryTiled(), unionTiled(), and intersectTiled() with the result.
+     * @param map a boolean[][] of any size that should ideally be mostly false
+     * @return a short[][][] of packed tiles, indexed by [tileX][tileY]
+     */
+    public static short[][][] packTiled(boolean[][] map)
+    {
+        if(map == null || map.length == 0)
+            throw new ArrayIndexOutOfBoundsException("CoordPacker.packTiled() must be given a non-empty array");
+        int xSize = map.length, ySize = map[0].length,
+                tilesX = (xSize + 255) >>> 8, tilesY = (ySize + 255) >>> 8;
+        short[][][] tiled = new short[tilesX][tilesY][];
+        for (int tx = 0; tx < tilesX; tx++) {
+            int x0 = tx << 8, tw = Math.min(256, xSize - x0);
+            for (int ty = 0; ty < tilesY; ty++) {
+                int y0 = ty << 8, th = Math.min(256, ySize - y0);
+                boolean[][] tile = null;
+                for (int x = 0; x < tw; x++) {
+                    for (int y = 0; y < th; y++) {
+                        if(map[x0 + x][y0 + y]) {
+                            if(tile == null)
+                                tile = new boolean[tw][th];
+                            tile[x][y] = true;
+                        }
+                    }
+                }
+                tiled[tx][ty] = (tile == null) ? ALL_WALL : pack(tile);
+            }
+        }
+        return tiled;
+    }
+
+    /**
+     * Compresses a double[][] of any size, including maps larger than 256x256, as packTiled(boolean[][]) does, with
+     * any value greater than 0.0 treated as "on".
+     * @param map a double[][] of any size that probably was returned by FOV
+     * @return a short[][][] of packed tiles, indexed by [tileX][tileY]
+     */
+    public static short[][][] packTiled(double[][] map)
+    {
+        if(map == null || map.length == 0)
+            throw new ArrayIndexOutOfBoundsException("CoordPacker.packTiled() must be given a non-empty array");
+        int xSize = map.length, ySize = map[0].length;
+        boolean[][] on = new boolean[xSize][ySize];
+        for (int x = 0; x < xSize; x++) {
+            for (int y = 0; y < ySize; y++) {
+                on[x][y] = map[x][y] > 0.0;
+            }
+        }
+        return packTiled(on);
+    }
+
+    /**
+     * Decompresses a short[][][] returned by packTiled() into a boolean[][] with the given dimensions, which should
+     * match the dimensions of the originally packed 2D array.
+     * @param tiled a short[][][] returned by packTiled(), unionTiled(), or intersectTiled()
+     * @param width the width of the 2D array that will be returned
+     * @param height the height of the 2D array that will be returned
+     * @return a boolean[][] storing which cells encoded by tiled are on (true) or off (false)
+     */
+    public static boolean[][] unpackTiled(short[][][] tiled, int width, int height)
+    {
+        if(tiled == null)
+            throw new ArrayIndexOutOfBoundsException("CoordPacker.unpackTiled() must be given a non-null array");
+        boolean[][] unpacked = new boolean[width][height];
+        for (int tx = 0; tx < tiled.length; tx++) {
+            for (int ty = 0; ty < tiled[tx].length; ty++) {
+                short[] packed = tiled[tx][ty];
+                boolean on = false;
+                int idx = 0, x, y;
+                for (int p = 0; p < packed.length; p++, on = !on) {
+                    if (on) {
+                        for (int toSkip = idx + (packed[p] & 0xffff); idx < toSkip; idx++) {
+                            x = (tx << 8) + hilbertX[idx];
+                            y = (ty << 8) + hilbertY[idx];
+                            if (x < width && y < height)
+                                unpacked[x][y] = true;
+                        }
+                    } else {
+                        idx += packed[p] & 0xffff;
+                    }
+                }
+            }
+        }
+        return unpacked;
+    }
+
+    /**
+     * Quickly determines if an x,y position is true or false in the given tiled packed array, without unpacking it.
+     * @param tiled a short[][][] returned by packTiled(), unionTiled(), or intersectTiled()
+     * @param x the x position to check; may be any non-negative int
+     * @param y the y position to check; may be any non-negative int
+     * @return true if tiled stores true at the given x,y location, or false in any other case, including if x,y is
+     *         outside the packed area
+     */
+    public static boolean queryTiled(short[][][] tiled, int x, int y)
+    {
+        int tx = x >>> 8, ty = y >>> 8;
+        if(tx >= tiled.length || ty >= tiled[tx].length)
+            return false;
+        return queryPacked(tiled[tx][ty], x & 255, y & 255);
+    }
+
+    /**
+     * Combines two short[][][] returned by packTiled() for maps of the same size, producing the union of their "on"
+     * cells. Tiles that are empty in one operand reuse the other operand's tile instead of copying it.
+     * @param left a short[][][] returned by packTiled(), unionTiled(), or intersectTiled()
+     * @param right a short[][][] with the same tile layout as left
+     * @return a short[][][] encoding every cell that is "on" in left or right
+     */
+    public static short[][][] unionTiled(short[][][] left, short[][][] right)
+    {
+        return mergeTiled(left, right, true);
+    }
+
+    /**
+     * Combines two short[][][] returned by packTiled() for maps of the same size, producing the intersection of
+     * their "on" cells.
+     * @param left a short[][][] returned by packTiled(), unionTiled(), or intersectTiled()
+     * @param right a short[][][] with the same tile layout as left
+     * @return a short[][][] encoding every cell that is "on" in both left and right
+     */
+    public static short[][][] intersectTiled(short[][][] left, short[][][] right)
+    {
+        return mergeTiled(left, right, false);
+    }
+
+    private static short[][][] mergeTiled(short[][][] left, short[][][] right, boolean union)
+    {
+        if(left.length != right.length || (left.length > 0 && left[0].length != right[0].length))
+            throw new UnsupportedOperationException("Tiled packed arrays must have the same number of tiles");
+        short[][][] merged = new short[left.length][][];
+        short[] l, r;
+        for (int tx = 0; tx < left.length; tx++) {
+            merged[tx] = new short[left[tx].length][];
+            for (int ty = 0; ty < left[tx].length; ty++) {
+                l = left[tx][ty];
+                r = right[tx][ty];
+                if(l.length == 0)
+                    merged[tx][ty] = union ? r : ALL_WALL;
+                else if(r.length == 0)
+                    merged[tx][ty] = union ? l : ALL_WALL;
+                else
+                    merged[tx][ty] = mergePacked(union ? 1 : 2, new short[][]{l, r});
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Builds a skip index for a packed short[] so that it can be queried with indexed overloads such as
+     * queryPacked(short[], int[], int, int) in O(log runs) time instead of walking the runs from the start. This
+     * overload samples every run, which makes queries as fast as possible but uses two ints of memory per run; use
+     * indexPacked(short[], int) to sample less often and trade a short walk per query for a smaller index.
+     * @param packed a short[] returned by pack() or one of the sub-arrays in what is returned by packMulti()
+     * @return an int[] index that must only be used with the packed array it was built from
+     */
+    public static int[] indexPacked(short[] packed)
+    {
+        return indexPacked(packed, 1);
+    }
+
+    /**
+     * Builds a skip index for a packed short[] that samples the total Hilbert distance, and the number of "on" cells
+     * before it, at the start of every spacing runs. Queries binary search the samples and then walk fewer than
+     * spacing runs, so they take O(log(runs / spacing) + spacing) time. The index takes 2 * (runs / spacing) + 1 ints;
+     * the first element stores spacing so that queries don't need to be told it.
+     * @param packed a short[] returned by pack() or one of the sub-arrays in what is returned by packMulti()
+     * @param spacing how many runs apart samples are; must be at least 1
+     * @return an int[] index that must only be used with the packed array it was built from
+     */
+    public static int[] indexPacked(short[] packed, int spacing)
+    {
+        if(spacing < 1)
+            throw new UnsupportedOperationException("spacing must be at least 1");
+        int samples = (packed.length + spacing - 1) / spacing;
+        int[] index = new int[samples * 2 + 1];
+        index[0] = spacing;
+        int total = 0, onCount = 0;
+        for (int p = 0, s = 1; p < packed.length; p++) {
+            if(p % spacing == 0) {
+                index[s++] = total;
+                index[s++] = onCount;
+            }
+            if((p & 1) == 1)
+                onCount += packed[p] & 0xffff;
+            total += packed[p] & 0xffff;
+        }
+        return index;
+    }
+
+    /**
+     * Finds the position in index of the last sample at or before the given Hilbert distance.
+     */
+    private static int findSample(int[] index, int hilbertDistance)
+    {
+        int low = 0, high = (index.length >>> 1) - 1, mid;
+        while (low < high) {
+            mid = (low + high + 1) >>> 1;
+            if(index[mid * 2 + 1] <= hilbertDistance)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return low;
+    }
+
+    /**
+     * Quickly determines if an x,y position is true or false in the given packed array, using a skip index built by
+     * indexPacked() to avoid walking the runs from the start; this takes O(log runs) time with the default index.
+     * @param packed a short[] returned by pack() or one of the sub-arrays in what is returned by packMulti(); must
+     *               not be null (this method does not check due to very tight performance constraints).
+     * @param index the result of calling indexPacked() on packed
+     * @param x between 0 and 255, inclusive
+     * @param y between 0 and 255, inclusive
+     * @return true if the packed data stores true at the given x,y location, or false in any other case.
+     */
+    public static boolean queryPacked(short[] packed, int[] index, int x, int y)
+    {
+        if(packed.length == 0)
+            return false;
+        int hilbertDistance = posToHilbert(x, y), sample = findSample(index, hilbertDistance),
+                p = sample * index[0], total = index[sample * 2 + 1];
+        for(; p < packed.length; p++)
+        {
+            total += packed[p] & 0xffff;
+            if(hilbertDistance < total)
+                return (p & 1) == 1;
+        }
+        return false;
+    }
+
+    /**
+     * Counts how many "on" cells in packed come before the given distance along the Hilbert Curve, using a skip
+     * index built by indexPacked().
+     * @param packed a short[] returned by pack() or one of the sub-arrays in what is returned by packMulti()
+     * @param index the result of calling indexPacked() on packed
+     * @param hilbertDistance a distance along the Hilbert Curve, from 0 to 65536
+     * @return the number of "on" cells with a Hilbert distance less than hilbertDistance
+     */
+    public static int countPackedBefore(short[] packed, int[] index, int hilbertDistance)
+    {
+        if(packed.length == 0)
+            return 0;
+        int sample = findSample(index, hilbertDistance), p = sample * index[0],
+                total = index[sample * 2 + 1], onCount = index[sample * 2 + 2], run;
+        for(; p < packed.length; p++)
+        {
+            run = packed[p] & 0xffff;
+            if(hilbertDistance < total + run)
+                return ((p & 1) == 1) ? onCount + hilbertDistance - total : onCount;
+            if((p & 1) == 1)
+                onCount += run;
+            total += run;
+        }
+        return onCount;
+    }
+
+    /**
+     * Counts how many "on" cells in packed fall in a range of distances along the Hilbert Curve, using a skip index
+     * built by indexPacked(), without unpacking. Because the Hilbert Curve keeps nearby distances in nearby cells,
+     * a range of distances covers a compact area; the range from n * 4^k to (n + 1) * 4^k covers a square
+     * 2^k cells on a side.
+     * @param packed a short[] returned by pack() or one of the sub-arrays in what is returned by packMulti()
+     * @param index the result of calling indexPacked() on packed
+     * @param start the inclusive start of the range of Hilbert distances
+     * @param end the exclusive end of the range of Hilbert distances
+     * @return the number of "on" cells with a Hilbert distance at least start and less than end
+     */
+    public static int countPacked(short[] packed, int[] index, int start, int end)
+    {
+        if(end <= start)
+            return 0;
+        return countPackedBefore(packed, index, end) - countPackedBefore(packed, index, start);
+    }
+
+    /**
+     * Checks if any cells in a range of distances along the Hilbert Curve are "on" in packed, using a skip index
+     * built by indexPacked(), without unpacking.
+     * @param packed a short[] returned by pack() or one of the sub-arrays in what is returned by packMulti()
+     * @param index the result of calling indexPacked() on packed
+     * @param start the inclusive start of the range of Hilbert distances
+     * @param end the exclusive end of the range of Hilbert distances
+     * @return true if any cell with a Hilbert distance at least start and less than end is "on"
+     */
+    public static boolean anyPacked(short[] packed, int[] index, int start, int end)
+    {
+        return countPacked(packed, index, start, end) > 0;
+    }
+
 
     /**
      * Compresses a double[][] (typically one generated by {@link squidpony.squidgrid.FOV}) that only stores two
@@ -1750,4 +2158,189 @@ public class CoordPacker {
         value2 &= 0x0000ffff;
         return Coord.get(value1, value2);
     }
+
+    /*
+     * Tables for the batch conversions below. The Hilbert curve's orientation at each level is one of 4 states, so
+     * instead of stepping through 8 levels one at a time like posToHilbert() does, these tables step through 4 levels
+     * at once: an index is (state << 8) | (4 bits of x << 4) | (4 bits of y), and each entry holds the next 8 bits of
+     * the Hilbert distance shifted left by 2, with the next state in the low 2 bits. The decode table works the same
+     * way in reverse. Together the tables use 4KB, compared to 256KB for hilbertX and hilbertY, so they stay in cache.
+     */
+    private static final char[] hilbertEncodeTable = new char[1024], hilbertDecodeTable = new char[1024];
+    /*
+     * Converts between one byte of a Morton code (4 bits each of x and y, interleaved) and the nibble-pair form used
+     * as an index into the tables above (x in the upper 4 bits, y in the lower 4).
+     */
+    private static final byte[] mortonToNibbles = new byte[256], nibblesToMorton = new byte[256];
+    static {
+        buildStateTable(hilbertEncodeTable, 0x82000028, true);
+        buildStateTable(hilbertDecodeTable, 0x330000cc, false);
+        for (int i = 0; i < 256; i++) {
+            int m = mortonEncode(i >>> 4, i & 15);
+            nibblesToMorton[i] = (byte) m;
+            mortonToNibbles[m] = (byte) i;
+        }
+    }
+
+    private static void buildStateTable(char[] table, int flips, boolean encode)
+    {
+        int[] stateOf = new int[256], remaps = new int[4];
+        Arrays.fill(stateOf, -1);
+        stateOf[0xb4] = 0;
+        remaps[0] = 0xb4;
+        for (int s = 0, n = 1; s < n; s++) {
+            for (int in = 0; in < 256; in++) {
+                int remap = remaps[s], out = 0, code, result;
+                for (int b = 3; b >= 0; b--) {
+                    if(encode) {
+                        code = ((in >>> 4 + b) & 1) | (((in >>> b) & 1) << 1);
+                        result = (remap >>> (code << 1)) & 3;
+                        out = (out << 2) | result;
+                    }
+                    else {
+                        code = (in >>> (b << 1)) & 3;
+                        result = (remap >>> (code << 1)) & 3;
+                        out |= ((result & 1) << 4 + b) | ((result >>> 1) << b);
+                    }
+                    remap = (remap ^ (flips >> ((encode ? result : code) << 3))) & 0xff;
+                }
+                if(stateOf[remap] < 0) {
+                    stateOf[remap] = n;
+                    remaps[n++] = remap;
+                }
+                table[s << 8 | in] = (char) (out << 2 | stateOf[remap]);
+            }
+        }
+    }
+
+    private static int nibblesToHilbert(int high, int low)
+    {
+        int e = hilbertEncodeTable[high];
+        return (e >>> 2) << 8 | hilbertEncodeTable[(e & 3) << 8 | low] >>> 2;
+    }
+
+    private static int hilbertToNibbles(int hilbert)
+    {
+        int e = hilbertDecodeTable[hilbert >>> 8 & 0xff];
+        return (e >>> 2) << 8 | hilbertDecodeTable[(e & 3) << 8 | (hilbert & 0xff)] >>> 2;
+    }
+
+    /**
+     * Converts many x, y positions to distances along the 256x256 Hilbert curve at once, giving the same results as
+     * calling posToHilbert() on each pair. This uses small lookup tables that handle 4 levels of the curve per step,
+     * rather than the 8 steps posToHilbert() takes or the large hilbertX and hilbertY tables, so it does well when
+     * converting thousands of positions, such as every floor cell on a map.
+     * @param xs x positions, each between 0 and 255 inclusive
+     * @param ys y positions, each between 0 and 255 inclusive; must be at least as long as xs
+     * @param hilberts will be filled with xs.length Hilbert distances; if null or too short, a new int[] is allocated
+     * @return hilberts, or a new int[] if hilberts was null or too short
+     */
+    public static int[] posToHilbert(final int[] xs, final int[] ys, int[] hilberts)
+    {
+        int len = xs.length, x, y;
+        if(hilberts == null || hilberts.length < len)
+            hilberts = new int[len];
+        for (int i = 0; i < len; i++) {
+            x = xs[i];
+            y = ys[i];
+            hilberts[i] = nibblesToHilbert((x & 0xf0) | (y >>> 4 & 15), (x << 4 & 0xf0) | (y & 15));
+        }
+        return hilberts;
+    }
+
+    /**
+     * Converts many Coords to distances along the 256x256 Hilbert curve at once, giving the same results as calling
+     * coordToHilbert() on each one. See posToHilbert(int[], int[], int[]) for details.
+     * @param points Coords with x and y each between 0 and 255 inclusive
+     * @param hilberts will be filled with points.length Hilbert distances; if null or too short, a new int[] is
+     *                 allocated
+     * @return hilberts, or a new int[] if hilberts was null or too short
+     */
+    public static int[] coordsToHilbert(final Coord[] points, int[] hilberts)
+    {
+        int len = points.length, x, y;
+        if(hilberts == null || hilberts.length < len)
+            hilberts = new int[len];
+        for (int i = 0; i < len; i++) {
+            x = points[i].x;
+            y = points[i].y;
+            hilberts[i] = nibblesToHilbert((x & 0xf0) | (y >>> 4 & 15), (x << 4 & 0xf0) | (y & 15));
+        }
+        return hilberts;
+    }
+
+    /**
+     * Converts many Morton codes (as produced by mortonEncode()) to distances along the 256x256 Hilbert curve at
+     * once, giving the same results as calling mortonToHilbert() on each one.
+     * @param mortons Morton codes that each interleave two 8-bit numbers
+     * @param hilberts will be filled with mortons.length Hilbert distances; if null or too short, a new int[] is
+     *                 allocated
+     * @return hilberts, or a new int[] if hilberts was null or too short
+     */
+    public static int[] mortonToHilbert(final int[] mortons, int[] hilberts)
+    {
+        int len = mortons.length, m;
+        if(hilberts == null || hilberts.length < len)
+            hilberts = new int[len];
+        for (int i = 0; i < len; i++) {
+            m = mortons[i];
+            hilberts[i] = nibblesToHilbert(mortonToNibbles[m >>> 8 & 0xff] & 0xff, mortonToNibbles[m & 0xff] & 0xff);
+        }
+        return hilberts;
+    }
+
+    /**
+     * Converts many distances along the 256x256 Hilbert curve to Morton codes at once, giving the same results as
+     * calling hilbertToMorton() on each one, but without using the hilbertX and hilbertY lookup tables.
+     * @param hilberts distances along the Hilbert curve, each between 0 and 65535 inclusive
+     * @param mortons will be filled with hilberts.length Morton codes; if null or too short, a new int[] is allocated
+     * @return mortons, or a new int[] if mortons was null or too short
+     */
+    public static int[] hilbertToMorton(final int[] hilberts, int[] mortons)
+    {
+        int len = hilberts.length, n;
+        if(mortons == null || mortons.length < len)
+            mortons = new int[len];
+        for (int i = 0; i < len; i++) {
+            n = hilbertToNibbles(hilberts[i]);
+            mortons[i] = (nibblesToMorton[n >>> 8] & 0xff) << 8 | (nibblesToMorton[n & 0xff] & 0xff);
+        }
+        return mortons;
+    }
+
+    /**
+     * Converts many distances along the 256x256 Hilbert curve to x, y positions at once, giving the same results as
+     * looking up hilbertX and hilbertY for each one, but using a few KB of tables instead of those 256KB.
+     * @param hilberts distances along the Hilbert curve, each between 0 and 65535 inclusive
+     * @param xs will be filled with the x position for each distance; must be at least as long as hilberts
+     * @param ys will be filled with the y position for each distance; must be at least as long as hilberts
+     */
+    public static void hilbertToPos(final int[] hilberts, final int[] xs, final int[] ys)
+    {
+        int n;
+        for (int i = 0; i < hilberts.length; i++) {
+            n = hilbertToNibbles(hilberts[i]);
+            xs[i] = (n >>> 8 & 0xf0) | (n >>> 4 & 15);
+            ys[i] = (n >>> 4 & 0xf0) | (n & 15);
+        }
+    }
+
+    /**
+     * Converts many distances along the 256x256 Hilbert curve to Coords at once, giving the same results as calling
+     * hilbertToCoord() on each one. See hilbertToPos(int[], int[], int[]) for details.
+     * @param hilberts distances along the Hilbert curve, each between 0 and 65535 inclusive
+     * @param points will be filled with hilberts.length Coords; if null or too short, a new Coord[] is allocated
+     * @return points, or a new Coord[] if points was null or too short
+     */
+    public static Coord[] hilbertToCoords(final int[] hilberts, Coord[] points)
+    {
+        int len = hilberts.length, n;
+        if(points == null || points.length < len)
+            points = new Coord[len];
+        for (int i = 0; i < len; i++) {
+            n = hilbertToNibbles(hilberts[i]);
+            points[i] = Coord.get((n >>> 8 & 0xf0) | (n >>> 4 & 15), (n >>> 4 & 0xf0) | (n & 15));
+        }
+        return points;
+    }
 }
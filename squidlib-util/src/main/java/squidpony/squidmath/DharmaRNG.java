@@ -287,6 +287,46 @@ public class DharmaRNG extends RNG {
         return (long)(2 * (this.nextDouble() - 0.5) * 0x7FFFFFFFFFFFFFFFL);
     }
 
+    /**
+     * Fills out by calling nextInt(bound) once per item, so every item affects the current fortune.
+     * @param out the array to fill
+     * @param bound the upper bound (exclusive)
+     * @return out, after filling it
+     */
+    @Override
+    public int[] nextInts(int[] out, int bound) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = nextInt(bound);
+        }
+        return out;
+    }
+
+    /**
+     * Fills out by calling nextLong() once per item, so every item affects the current fortune.
+     * @param out the array to fill
+     * @return out, after filling it
+     */
+    @Override
+    public long[] nextLongs(long[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = nextLong();
+        }
+        return out;
+    }
+
+    /**
+     * Fills out by calling nextDouble() once per item, so every item affects the current fortune.
+     * @param out the array to fill
+     * @return out, after filling it
+     */
+    @Override
+    public double[] nextDoubles(double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = nextDouble();
+        }
+        return out;
+    }
+
     /**
      * Returns a random long below the given bound, or 0 if the bound is 0 or
      * negative.
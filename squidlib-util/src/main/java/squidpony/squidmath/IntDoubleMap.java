@@ -0,0 +1,280 @@
+package squidpony.squidmath;
+
+import java.util.Arrays;
+
+/**
+ * A map from int keys to double values using open addressing with linear probing, so neither keys nor values are
+ * boxed. This is the primitive counterpart to a {@code Map<Coord, Double>} when keys are encoded with Coord.encode(),
+ * but any int can be a key, including 0 and negative numbers. It hashes the same way as IntSet and has the same
+ * growth and iteration behavior.
+ * <br>
+ * Getting a key that isn't present returns defaultValue, which is 0.0 unless it is changed.
+ */
+public class IntDoubleMap {
+    /**
+     * Goes through the entries in an IntDoubleMap; the current entry is kept in the public fields key and value, and a
+     * single Cursor can be reused for any number of maps with reset(). Changing which keys the map holds while a
+     * Cursor is going through it can skip or repeat entries.
+     */
+    public static class Cursor {
+        /**
+         * The key of the entry the cursor is on, after next() has returned true.
+         */
+        public int key;
+        /**
+         * The value of the entry the cursor is on, after next() has returned true.
+         */
+        public double value;
+        private IntDoubleMap map;
+        private int index;
+
+        /**
+         * Creates a Cursor for the given map, positioned before the first entry.
+         * @param map the IntDoubleMap to go through
+         */
+        public Cursor(IntDoubleMap map) {
+            reset(map);
+        }
+
+        /**
+         * Starts going through map from before its first entry.
+         * @param map the IntDoubleMap to go through
+         * @return this Cursor
+         */
+        public Cursor reset(IntDoubleMap map) {
+            this.map = map;
+            index = -1;
+            return this;
+        }
+
+        /**
+         * Moves to the next entry in the map and stores it in key and value.
+         * @return true if there was another entry, or false if the cursor has gone through all of them
+         */
+        public boolean next() {
+            if (index < 0) {
+                index = 0;
+                if (map.hasZero) {
+                    key = 0;
+                    value = map.zeroValue;
+                    return true;
+                }
+            }
+            int[] keys = map.keys;
+            while (index < keys.length) {
+                if (keys[index++] != 0) {
+                    key = keys[index - 1];
+                    value = map.values[index - 1];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The value returned by get() and remove() when a key isn't present.
+     */
+    public double defaultValue = 0.0;
+
+    private int[] keys;
+    private double[] values;
+    private boolean hasZero;
+    private double zeroValue;
+    private int size, mask, threshold;
+
+    /**
+     * Creates an empty IntDoubleMap with room for 16 entries before it needs to grow.
+     */
+    public IntDoubleMap() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty IntDoubleMap with room for the given number of entries before it needs to grow.
+     * @param expected how many entries this should hold without growing
+     */
+    public IntDoubleMap(int expected) {
+        allocate(Math.max(4, Integer.highestOneBit(Math.max(expected, 1) * 2 - 1) << 1));
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new double[capacity];
+        mask = capacity - 1;
+        threshold = capacity >>> 1;
+    }
+
+    /**
+     * Associates value with key, replacing any value key already had.
+     * @param key any int
+     * @param value any double
+     * @return the previous value for key, or defaultValue if it had none
+     */
+    public double put(int key, double value) {
+        double old;
+        if (key == 0) {
+            old = hasZero ? zeroValue : defaultValue;
+            if (!hasZero) {
+                hasZero = true;
+                size++;
+            }
+            zeroValue = value;
+            return old;
+        }
+        int i = IntSet.place(key, mask);
+        for (int k; (k = keys[i]) != 0; i = i + 1 & mask) {
+            if (k == key) {
+                old = values[i];
+                values[i] = value;
+                return old;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > threshold)
+            resize(keys.length << 1);
+        return defaultValue;
+    }
+
+    /**
+     * Gets the value for key.
+     * @param key any int
+     * @return the value associated with key, or defaultValue if it has none
+     */
+    public double get(int key) {
+        if (key == 0)
+            return hasZero ? zeroValue : defaultValue;
+        int i = IntSet.place(key, mask);
+        for (int k; (k = keys[i]) != 0; i = i + 1 & mask) {
+            if (k == key)
+                return values[i];
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Checks whether key has a value in this map.
+     * @param key any int
+     * @return true if key is present
+     */
+    public boolean containsKey(int key) {
+        if (key == 0)
+            return hasZero;
+        int i = IntSet.place(key, mask);
+        for (int k; (k = keys[i]) != 0; i = i + 1 & mask) {
+            if (k == key)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes key and its value from this map.
+     * @param key any int
+     * @return the value key had, or defaultValue if it had none
+     */
+    public double remove(int key) {
+        if (key == 0) {
+            if (!hasZero)
+                return defaultValue;
+            hasZero = false;
+            size--;
+            return zeroValue;
+        }
+        int i = IntSet.place(key, mask);
+        for (int k; (k = keys[i]) != 0; i = i + 1 & mask) {
+            if (k == key) {
+                double old = values[i];
+                shiftKeys(i);
+                size--;
+                return old;
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Fills the gap left at pos by moving back any later entries in the same run that belong at or before it.
+     */
+    private void shiftKeys(int pos) {
+        int last, slot, k;
+        for (;;) {
+            pos = (last = pos) + 1 & mask;
+            for (;;) {
+                if ((k = keys[pos]) == 0) {
+                    keys[last] = 0;
+                    return;
+                }
+                slot = IntSet.place(k, mask);
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos)
+                    break;
+                pos = pos + 1 & mask;
+            }
+            keys[last] = k;
+            values[last] = values[pos];
+        }
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        double[] oldValues = values;
+        allocate(capacity);
+        int i;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0) {
+                i = IntSet.place(oldKeys[j], mask);
+                while (keys[i] != 0) {
+                    i = i + 1 & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * @return how many entries are in this map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if this map has no entries
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every entry from this map, keeping its current capacity.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        hasZero = false;
+        size = 0;
+    }
+
+    /**
+     * Makes a new IntSet holding every key in this map.
+     * @return a new IntSet of the keys
+     */
+    public IntSet keySet() {
+        IntSet set = new IntSet(size);
+        if (hasZero)
+            set.add(0);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0)
+                set.add(keys[i]);
+        }
+        return set;
+    }
+
+    /**
+     * @return a new Cursor positioned before the first entry in this map
+     */
+    public Cursor cursor() {
+        return new Cursor(this);
+    }
+}
@@ -0,0 +1,282 @@
+package squidpony.squidmath;
+
+import java.util.Arrays;
+
+/**
+ * A set of ints using open addressing with linear probing, so adding, removing, and checking for an int never boxes it
+ * or allocates a node. Meant for encoded positions from Coord.encode(), which hash far better here than Coord itself
+ * does in a HashSet, but any int can be stored, including 0 and negative numbers.
+ * <br>
+ * The table is kept at most half full and doubles in size as needed. Iteration order is unspecified and changes when
+ * the table grows; use a Cursor to go through the contents without allocating anything per item.
+ */
+public class IntSet {
+    /**
+     * Goes through the ints in an IntSet; the current int is kept in the public field key, and a single Cursor can be
+     * reused for any number of sets with reset(). Changing the set while a Cursor is going through it can skip or
+     * repeat items.
+     */
+    public static class Cursor {
+        /**
+         * The int the cursor is on, after next() has returned true.
+         */
+        public int key;
+        private IntSet set;
+        private int index;
+
+        /**
+         * Creates a Cursor for the given set, positioned before the first int.
+         * @param set the IntSet to go through
+         */
+        public Cursor(IntSet set) {
+            reset(set);
+        }
+
+        /**
+         * Starts going through set from before its first int.
+         * @param set the IntSet to go through
+         * @return this Cursor
+         */
+        public Cursor reset(IntSet set) {
+            this.set = set;
+            index = -1;
+            return this;
+        }
+
+        /**
+         * Moves to the next int in the set and stores it in key.
+         * @return true if there was another int, or false if the cursor has gone through all of them
+         */
+        public boolean next() {
+            if (index < 0) {
+                index = 0;
+                if (set.hasZero) {
+                    key = 0;
+                    return true;
+                }
+            }
+            int[] keys = set.keys;
+            while (index < keys.length) {
+                if (keys[index++] != 0) {
+                    key = keys[index - 1];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private int[] keys;
+    private boolean hasZero;
+    private int size, mask, threshold;
+
+    /**
+     * Creates an empty IntSet with room for 16 ints before it needs to grow.
+     */
+    public IntSet() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty IntSet with room for the given number of ints before it needs to grow.
+     * @param expected how many ints this should hold without growing
+     */
+    public IntSet(int expected) {
+        allocate(Math.max(4, Integer.highestOneBit(Math.max(expected, 1) * 2 - 1) << 1));
+    }
+
+    /**
+     * Creates an IntSet holding all of the given ints. This is a factory method rather than a constructor so it can't
+     * be mistaken for IntSet(int), which only sets the capacity.
+     * @param items the ints to add
+     * @return a new IntSet containing items
+     */
+    public static IntSet with(int... items) {
+        IntSet set = new IntSet(items.length);
+        for (int i = 0; i < items.length; i++) {
+            set.add(items[i]);
+        }
+        return set;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        mask = capacity - 1;
+        threshold = capacity >>> 1;
+    }
+
+    /**
+     * Scrambles an int so that nearby ints, such as encoded positions, land far apart in the table.
+     */
+    static int place(int key, int mask) {
+        int h = key * 0x9E3779B9;
+        return (h ^ h >>> 16) & mask;
+    }
+
+    /**
+     * Adds an int to this set.
+     * @param key any int
+     * @return true if the int was not already present
+     */
+    public boolean add(int key) {
+        if (key == 0) {
+            if (hasZero)
+                return false;
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int i = place(key, mask);
+        for (int k; (k = keys[i]) != 0; i = i + 1 & mask) {
+            if (k == key)
+                return false;
+        }
+        keys[i] = key;
+        if (++size > threshold)
+            resize(keys.length << 1);
+        return true;
+    }
+
+    /**
+     * Adds every int in other to this set.
+     * @param other another IntSet
+     */
+    public void addAll(IntSet other) {
+        if (other.hasZero)
+            add(0);
+        int[] ks = other.keys;
+        for (int i = 0; i < ks.length; i++) {
+            if (ks[i] != 0)
+                add(ks[i]);
+        }
+    }
+
+    /**
+     * Checks whether an int is in this set.
+     * @param key any int
+     * @return true if key is present
+     */
+    public boolean contains(int key) {
+        if (key == 0)
+            return hasZero;
+        int i = place(key, mask);
+        for (int k; (k = keys[i]) != 0; i = i + 1 & mask) {
+            if (k == key)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes an int from this set.
+     * @param key any int
+     * @return true if key was present
+     */
+    public boolean remove(int key) {
+        if (key == 0) {
+            if (!hasZero)
+                return false;
+            hasZero = false;
+            size--;
+            return true;
+        }
+        int i = place(key, mask);
+        for (int k; (k = keys[i]) != 0; i = i + 1 & mask) {
+            if (k == key) {
+                shiftKeys(i);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fills the gap left at pos by moving back any later keys in the same run that belong at or before it.
+     */
+    private void shiftKeys(int pos) {
+        int last, slot, k;
+        for (;;) {
+            pos = (last = pos) + 1 & mask;
+            for (;;) {
+                if ((k = keys[pos]) == 0) {
+                    keys[last] = 0;
+                    return;
+                }
+                slot = place(k, mask);
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos)
+                    break;
+                pos = pos + 1 & mask;
+            }
+            keys[last] = k;
+        }
+    }
+
+    private void resize(int capacity) {
+        int[] old = keys;
+        allocate(capacity);
+        int i;
+        for (int j = 0; j < old.length; j++) {
+            if (old[j] != 0) {
+                i = place(old[j], mask);
+                while (keys[i] != 0) {
+                    i = i + 1 & mask;
+                }
+                keys[i] = old[j];
+            }
+        }
+    }
+
+    /**
+     * @return how many ints are in this set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if this set has no ints
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every int from this set, keeping its current capacity.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        hasZero = false;
+        size = 0;
+    }
+
+    /**
+     * Copies the contents of this set into a new array, in the order a Cursor would go through them.
+     * @return a new int[] with size() items
+     */
+    public int[] toArray() {
+        int[] out = new int[size];
+        int n = 0;
+        if (hasZero)
+            out[n++] = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0)
+                out[n++] = keys[i];
+        }
+        return out;
+    }
+
+    /**
+     * @return a new Cursor positioned before the first int in this set
+     */
+    public Cursor cursor() {
+        return new Cursor(this);
+    }
+
+    @Override
+    public String toString() {
+        int[] items = toArray();
+        Arrays.sort(items);
+        return "IntSet" + Arrays.toString(items);
+    }
+}
@@ -8,6 +8,8 @@ worldwide. This software is distributed without any warranty.
 See <http://creativecommons.org/publicdomain/zero/1.0/>. */
 package squidpony.squidmath;
 
+import java.util.Arrays;
+
 /**
  * This is a SplittableRandom-style generator, meant to have a tiny state
  * that permits storing many different generators with low overhead.
@@ -29,6 +31,12 @@ public class LightRNG implements RandomnessSource, StatefulRandomness
 
     public long state; /* The state can be seeded with any value. */
 
+    /**
+     * How many steps apart the substreams made by substream() start, 2 to the 40. Each call to nextLong() takes one
+     * step.
+     */
+    public static final long SUBSTREAM_LENGTH = 1L << 40;
+
     /** Creates a new generator seeded using Math.random. */
     public LightRNG() {
         this((long) Math.floor(Math.random() * Long.MAX_VALUE));
@@ -142,6 +150,60 @@ public class LightRNG implements RandomnessSource, StatefulRandomness
         return ( nextLong() & 1 ) != 0L;
     }
 
+    @Override
+    public void nextInts( final int[] out, final int bound ) {
+        if ( bound <= 0 ) {
+            Arrays.fill( out, 0 );
+            return;
+        }
+        final int m = bound - 1;
+        final boolean pow2 = ( bound & m ) == 0;
+        long s = state;
+        int r, u;
+        for ( int i = 0; i < out.length; i++ ) {
+            r = (int) mix( s += 0x9E3779B97F4A7C15l ) & 0x7FFFFFFF;
+            if ( pow2 ) {
+                out[ i ] = (int) ( ( bound * (long) r ) >> 31 );
+                continue;
+            }
+            for ( u = r; u - ( r = u % bound ) + m < 0; ) {
+                u = (int) mix( s += 0x9E3779B97F4A7C15l ) & 0x7FFFFFFF;
+            }
+            out[ i ] = r;
+        }
+        state = s;
+    }
+
+    @Override
+    public void nextLongs( final long[] out ) {
+        long s = state;
+        for ( int i = 0; i < out.length; i++ ) {
+            out[ i ] = mix( s += 0x9E3779B97F4A7C15l );
+        }
+        state = s;
+    }
+
+    /**
+     * Fills out with the same values as calling {@link #nextDouble()} once per item.
+     */
+    @Override
+    public void nextDoubles( final double[] out ) {
+        long s = state;
+        for ( int i = 0; i < out.length; i++ ) {
+            out[ i ] = ( mix( s += 0x9E3779B97F4A7C15l ) & DOUBLE_MASK ) * NORM_53;
+        }
+        state = s;
+    }
+
+    /**
+     * The output step of nextLong(), given the state after it has been advanced.
+     */
+    private static long mix( long z ) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9l;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBl;
+        return z ^ (z >>> 31);
+    }
+
     public void nextBytes( final byte[] bytes ) {
         int i = bytes.length, n = 0;
         while( i != 0 ) {
@@ -172,6 +234,18 @@ public class LightRNG implements RandomnessSource, StatefulRandomness
         return state;
     }
 
+    /**
+     * Makes a new LightRNG with this one's state advanced by {@code index * SUBSTREAM_LENGTH} steps. Up to 2 to the 24
+     * substreams with different indices won't overlap as long as each one takes fewer than SUBSTREAM_LENGTH steps.
+     * This generator is not changed.
+     * @param index which substream to make; 0 copies this generator
+     * @return a new LightRNG starting at the given substream
+     */
+    @Override
+    public LightRNG substream( final long index ) {
+        return new LightRNG( state + 0x9E3779B97F4A7C15l * SUBSTREAM_LENGTH * index );
+    }
+
     /**
      * Skip forward or backward a number of steps specified by advance, without generating a number at each step.
      * @param advance Number of future generations to skip past. Can be negative to backtrack.
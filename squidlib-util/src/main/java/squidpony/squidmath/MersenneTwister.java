@@ -1,6 +1,7 @@
 package squidpony.squidmath;
 
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -37,6 +38,7 @@ public class MersenneTwister implements RandomnessSource {
     private final ReentrantLock lock = new ReentrantLock();
     private final int[] mt = new int[N]; // State vector.
     private int mtIndex = 0; // Index into state vector.    
+    private static final double DOUBLE_UNIT = 1.0 / (1L << 53);
     private static final int BITWISE_BYTE_TO_INT = 0x000000FF;
 
     /**
@@ -136,34 +138,102 @@ public class MersenneTwister implements RandomnessSource {
         int y;
         try {
             lock.lock();
-            if (mtIndex >= N) // Generate N ints at a time.
-            {
-                int kk;
-                for (kk = 0; kk < N - M; kk++) {
-                    y = (mt[kk] & UPPER_MASK) | (mt[kk + 1] & LOWER_MASK);
-                    mt[kk] = mt[kk + M] ^ (y >>> 1) ^ MAG01[y & 0x1];
+            y = nextTempered();
+        } finally {
+            lock.unlock();
+        }
+        return y >>> (32 - bits);
+    }
+
+    /**
+     * Fills out with the same values as calling RNG.nextInt(bound) once per item, but only locks once.
+     */
+    @Override
+    public void nextInts(int[] out, int bound) {
+        if (bound <= 0) {
+            Arrays.fill(out, 0);
+            return;
+        }
+        final int m = bound - 1;
+        final boolean pow2 = (bound & m) == 0;
+        int r, u;
+        try {
+            lock.lock();
+            for (int i = 0; i < out.length; i++) {
+                r = nextTempered() >>> 1;
+                if (pow2) {
+                    out[i] = (int) ((bound * (long) r) >> 31);
+                    continue;
                 }
-                for (; kk < N - 1; kk++) {
-                    y = (mt[kk] & UPPER_MASK) | (mt[kk + 1] & LOWER_MASK);
-                    mt[kk] = mt[kk + (M - N)] ^ (y >>> 1) ^ MAG01[y & 0x1];
+                for (u = r; u - (r = u % bound) + m < 0; ) {
+                    u = nextTempered() >>> 1;
                 }
-                y = (mt[N - 1] & UPPER_MASK) | (mt[0] & LOWER_MASK);
-                mt[N - 1] = mt[M - 1] ^ (y >>> 1) ^ MAG01[y & 0x1];
+                out[i] = r;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
 
-                mtIndex = 0;
+    /**
+     * Fills out with the same values as calling RNG.nextLong() once per item, but only locks once.
+     */
+    @Override
+    public void nextLongs(long[] out) {
+        try {
+            lock.lock();
+            for (int i = 0; i < out.length; i++) {
+                out[i] = ((long) nextTempered() << 32) + nextTempered();
             }
+        } finally {
+            lock.unlock();
+        }
+    }
 
-            y = mt[mtIndex++];
+    /**
+     * Fills out with the same values as calling RNG.nextDouble() once per item, but only locks once.
+     */
+    @Override
+    public void nextDoubles(double[] out) {
+        try {
+            lock.lock();
+            for (int i = 0; i < out.length; i++) {
+                out[i] = (((long) (nextTempered() >>> 6) << 27) + (nextTempered() >>> 5)) * DOUBLE_UNIT;
+            }
         } finally {
             lock.unlock();
         }
+    }
+
+    /**
+     * Gets the next 32 bits of output; the caller must hold lock.
+     */
+    private int nextTempered() {
+        int y;
+        if (mtIndex >= N) // Generate N ints at a time.
+        {
+            int kk;
+            for (kk = 0; kk < N - M; kk++) {
+                y = (mt[kk] & UPPER_MASK) | (mt[kk + 1] & LOWER_MASK);
+                mt[kk] = mt[kk + M] ^ (y >>> 1) ^ MAG01[y & 0x1];
+            }
+            for (; kk < N - 1; kk++) {
+                y = (mt[kk] & UPPER_MASK) | (mt[kk + 1] & LOWER_MASK);
+                mt[kk] = mt[kk + (M - N)] ^ (y >>> 1) ^ MAG01[y & 0x1];
+            }
+            y = (mt[N - 1] & UPPER_MASK) | (mt[0] & LOWER_MASK);
+            mt[N - 1] = mt[M - 1] ^ (y >>> 1) ^ MAG01[y & 0x1];
+
+            mtIndex = 0;
+        }
+
+        y = mt[mtIndex++];
         // Tempering
         y ^= (y >>> 11);
         y ^= (y << 7) & GENERATE_MASK1;
         y ^= (y << 15) & GENERATE_MASK2;
         y ^= (y >>> 18);
-
-        return y >>> (32 - bits);
+        return y;
     }
 
 }
@@ -0,0 +1,95 @@
+package squidpony.squidmath;
+
+/**
+ * Walks through the "on" cells of a short[] packed by CoordPacker without unpacking it or building a Coord[], either
+ * one run of consecutive Hilbert Curve distances at a time with next(), or one cell at a time with nextCell(). The
+ * current position is kept in public fields, so iterating allocates nothing, and a single cursor can be reused for
+ * any number of packed arrays by calling reset().
+ * <br>
+ * A typical loop over cells looks like this:
+ * <pre>
+ * PackedCursor cursor = new PackedCursor();
+ * cursor.reset(packed);
+ * while (cursor.nextCell()) {
+ *     doSomething(cursor.x, cursor.y);
+ * }
+ * </pre>
+ */
+public class PackedCursor {
+    /**
+     * The packed array being walked through.
+     */
+    public short[] packed;
+    /**
+     * The current "on" run covers Hilbert Curve distances from start, inclusive, to end, exclusive.
+     */
+    public int start, end;
+    /**
+     * The current cell after a successful call to nextCell().
+     */
+    public int x, y, hilbert;
+
+    private int element;
+
+    /**
+     * Creates a cursor with nothing to walk through; call reset() before using it.
+     */
+    public PackedCursor() {
+        this(CoordPacker.ALL_WALL);
+    }
+
+    /**
+     * Creates a cursor positioned before the first "on" cell of packed.
+     * @param packed a short[] returned by pack() or one of the sub-arrays in what is returned by packMulti()
+     */
+    public PackedCursor(short[] packed) {
+        reset(packed);
+    }
+
+    /**
+     * Moves this cursor to before the first "on" cell of packed, so it can be reused without allocating.
+     * @param packed a short[] returned by pack() or one of the sub-arrays in what is returned by packMulti()
+     * @return this, for chaining
+     */
+    public PackedCursor reset(short[] packed) {
+        this.packed = packed;
+        element = 0;
+        start = end = 0;
+        hilbert = -1;
+        return this;
+    }
+
+    /**
+     * Advances to the next run of "on" cells, setting start and end. Runs of length 0 are skipped.
+     * @return true if there was another run, or false if the end of packed was reached
+     */
+    public boolean next() {
+        while (element + 1 < packed.length) {
+            start = end + (packed[element] & 0xffff);
+            end = start + (packed[element + 1] & 0xffff);
+            element += 2;
+            if (end > start) {
+                hilbert = start - 1;
+                return true;
+            }
+        }
+        start = end;
+        hilbert = end;
+        return false;
+    }
+
+    /**
+     * Advances to the next "on" cell, setting hilbert, x, and y.
+     * @return true if there was another cell, or false if the end of packed was reached
+     */
+    public boolean nextCell() {
+        if (++hilbert >= end) {
+            if (!next())
+                return false;
+            hilbert = start;
+        }
+        x = CoordPacker.hilbertX[hilbert];
+        y = CoordPacker.hilbertY[hilbert];
+        return true;
+    }
+}
@@ -8,6 +8,8 @@ worldwide. This software is distributed without any warranty.
 See <http://creativecommons.org/publicdomain/zero/1.0/>. */
 package squidpony.squidmath;
 
+import java.util.Arrays;
+
 /**
  * This is a SplittableRandom-style generator, meant to have a tiny state
  * that can be efficiently stored and passed, that also performs pseudo-
@@ -34,6 +36,12 @@ public class PermutedRNG implements RandomnessSource, StatefulRandomness
      */
     public long state;
 
+    /**
+     * How many steps apart the substreams made by substream() start, 2 to the 40. Each call to nextInt() takes one
+     * step, and each call to nextLong() takes two.
+     */
+    public static final long SUBSTREAM_LENGTH = 1L << 40;
+
     /** Creates a new generator seeded using Math.random. */
     public PermutedRNG() {
         this((long)Math.floor(Math.random() * Long.MAX_VALUE));
@@ -53,7 +61,13 @@ public class PermutedRNG implements RandomnessSource, StatefulRandomness
      * @return
      */
     public int nextInt() {
-        long z = ( state += 0x9E3779B97F4A7C15l );
+        return permute( state += 0x9E3779B97F4A7C15l );
+    }
+
+    /**
+     * The output step of nextInt(), given the state after it has been advanced.
+     */
+    private static int permute( long z ) {
         z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9l;
         z = (z ^ (z >>> 27)) * 0x94D049BB133111EBl;
         z = z ^ (z >>> 31);
@@ -168,6 +182,55 @@ public class PermutedRNG implements RandomnessSource, StatefulRandomness
         return ( nextInt() & 1 ) != 0L;
     }
 
+    @Override
+    public void nextInts( final int[] out, final int bound ) {
+        if ( bound <= 0 ) {
+            Arrays.fill( out, 0 );
+            return;
+        }
+        final int m = bound - 1;
+        final boolean pow2 = ( bound & m ) == 0;
+        long s = state;
+        int r, u;
+        for ( int i = 0; i < out.length; i++ ) {
+            r = permute( s += 0x9E3779B97F4A7C15l ) & 0x7FFFFFFF;
+            if ( pow2 ) {
+                out[ i ] = (int) ( ( bound * (long) r ) >> 31 );
+                continue;
+            }
+            for ( u = r; u - ( r = u % bound ) + m < 0; ) {
+                u = permute( s += 0x9E3779B97F4A7C15l ) & 0x7FFFFFFF;
+            }
+            out[ i ] = r;
+        }
+        state = s;
+    }
+
+    /**
+     * Fills out with the same values as calling {@link #nextLong()} once per item.
+     */
+    @Override
+    public void nextLongs( final long[] out ) {
+        long s = state;
+        for ( int i = 0; i < out.length; i++ ) {
+            out[ i ] = ( (long) permute( s += 0x9E3779B97F4A7C15l ) << 32 ) + permute( s += 0x9E3779B97F4A7C15l );
+        }
+        state = s;
+    }
+
+    /**
+     * Fills out with the same values as calling {@link #nextDouble()} once per item.
+     */
+    @Override
+    public void nextDoubles( final double[] out ) {
+        long s = state;
+        for ( int i = 0; i < out.length; i++ ) {
+            out[ i ] = ( ( ( (long) permute( s += 0x9E3779B97F4A7C15l ) << 32 ) + permute( s += 0x9E3779B97F4A7C15l ) )
+                    & DOUBLE_MASK ) * NORM_53;
+        }
+        state = s;
+    }
+
     public void nextBytes( final byte[] bytes ) {
         int i = bytes.length, n = 0;
         while( i != 0 ) {
@@ -198,6 +261,18 @@ public class PermutedRNG implements RandomnessSource, StatefulRandomness
         return state;
     }
 
+    /**
+     * Makes a new PermutedRNG with this one's state advanced by {@code index * SUBSTREAM_LENGTH} steps. Up to 2 to the 24
+     * substreams with different indices won't overlap as long as each one takes fewer than SUBSTREAM_LENGTH steps.
+     * This generator is not changed.
+     * @param index which substream to make; 0 copies this generator
+     * @return a new PermutedRNG starting at the given substream
+     */
+    @Override
+    public PermutedRNG substream( final long index ) {
+        return new PermutedRNG( state + 0x9E3779B97F4A7C15l * SUBSTREAM_LENGTH * index );
+    }
+
     /**
      * Skip forward or backward a number of steps specified by advance, without generating a number at each step.
      * @param advance Number of future generations to skip past. Can be negative to backtrack.
@@ -1,6 +1,7 @@
 package squidpony.squidmath;
 
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import squidpony.annotation.Beta;
 
@@ -11,6 +12,11 @@ import squidpony.annotation.Beta;
  * The weights do not need to add up to any particular value, they will be
  * normalized when choosing a random entry.
  *
+ * Random choices use Vose's alias method, so each one takes constant time no
+ * matter how many items the table holds. The alias table is built from the
+ * weights the first time random() is called after any call to add(), which
+ * takes time proportional to the number of items.
+ *
  * @author Eben Howard - http://squidpony.com - howard@squidpony.com
  *
  * @param <T> The type of object to be held in the table
@@ -21,6 +27,9 @@ public class ProbabilityTable<T> {
     private final HashMap<T, Integer> table = new HashMap<>();
     private RNG rng;
     private int total = 0;
+    private Object[] items;
+    private int[] alias, threshold;
+    private boolean compiled = false;
 
     /**
      * Creates a new probability table.
@@ -46,18 +55,72 @@ public class ProbabilityTable<T> {
      *
      * @return the chosen object or null
      */
+    @SuppressWarnings("unchecked")
     public T random() {
         if (table.isEmpty()) {
             return null;
         }
-        int index = rng.nextInt(total);
-        for (T t : table.keySet()) {
-            index -= table.get(t);
-            if (index < 0) {
-                return t;
+        if (!compiled) {
+            compile();
+        }
+        int index = rng.nextInt(items.length);
+        if (rng.nextInt(total) >= threshold[index]) {
+            index = alias[index];
+        }
+        return (T) items[index];
+    }
+
+    /**
+     * Builds the alias table used by random(). Every item gets a column of
+     * height total; its own weight times the item count fills the bottom of
+     * the column, up to threshold, and the rest of the column is filled by
+     * one alias item. All of this is done in integers, so each item is chosen
+     * with exactly its weight divided by total.
+     */
+    private void compile() {
+        int n = table.size();
+        if (items == null || items.length != n) {
+            items = new Object[n];
+            alias = new int[n];
+            threshold = new int[n];
+        }
+        long[] scaled = new long[n];
+        int[] small = new int[n], large = new int[n];
+        int smallCount = 0, largeCount = 0, i = 0;
+        for (Map.Entry<T, Integer> e : table.entrySet()) {
+            items[i] = e.getKey();
+            scaled[i] = (long) e.getValue() * n;
+            if (scaled[i] < total) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+            i++;
+        }
+        int s, l;
+        while (smallCount > 0 && largeCount > 0) {
+            s = small[--smallCount];
+            l = large[--largeCount];
+            threshold[s] = (int) scaled[s];
+            alias[s] = l;
+            scaled[l] -= total - scaled[s];
+            if (scaled[l] < total) {
+                small[smallCount++] = l;
+            } else {
+                large[largeCount++] = l;
             }
         }
-        return null;//something went wrong, shouldn't have been able to get all the way through without finding an item
+        while (largeCount > 0) {
+            l = large[--largeCount];
+            threshold[l] = total;
+            alias[l] = l;
+        }
+        while (smallCount > 0) {
+            s = small[--smallCount];
+            threshold[s] = total;
+            alias[s] = s;
+        }
+        compiled = true;
     }
 
     /**
@@ -77,6 +140,7 @@ public class ProbabilityTable<T> {
         }
         table.put(item, i);
         total += weight;
+        compiled = false;
     }
 
     /**
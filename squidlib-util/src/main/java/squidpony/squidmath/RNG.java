@@ -447,6 +447,48 @@ public class RNG {
         return r;
     }
 
+    /**
+     * Fills out with random integers below the given bound, or with 0 if the bound is 0 or negative. This gives the
+     * same results as calling nextInt(bound) once per item, but the RandomnessSource fills the whole array in one call,
+     * which is much faster when many numbers are needed at once.
+     *
+     * @param out the array to fill; its length is how many ints will be generated
+     * @param bound the upper bound (exclusive)
+     * @return out, after filling it
+     */
+    public int[] nextInts(int[] out, int bound) {
+        random.nextInts(out, bound);
+        return out;
+    }
+
+    /**
+     * Fills out with random longs between Long.MIN_VALUE and Long.MAX_VALUE (both inclusive), using one call to the
+     * RandomnessSource for the whole array. These have the same distribution as nextLong(), but depending on the
+     * RandomnessSource, they may not be the same values that calling nextLong() once per item would give; LightRNG,
+     * PermutedRNG, and XorRNG fill it with their own nextLong() results, where nextLong() here joins two 32-bit
+     * results, so replacing a nextLong() loop with this changes what a seeded RNG produces.
+     *
+     * @param out the array to fill; its length is how many longs will be generated
+     * @return out, after filling it
+     */
+    public long[] nextLongs(long[] out) {
+        random.nextLongs(out);
+        return out;
+    }
+
+    /**
+     * Fills out with random doubles between 0.0 (inclusive) and 1.0 (exclusive), using one call to the
+     * RandomnessSource for the whole array. These have the same distribution as nextDouble(), but depending on the
+     * RandomnessSource, they may not be the same values that calling nextDouble() once per item would give.
+     *
+     * @param out the array to fill; its length is how many doubles will be generated
+     * @return out, after filling it
+     */
+    public double[] nextDoubles(double[] out) {
+        random.nextDoubles(out);
+        return out;
+    }
+
     /**
      * Get a random integer between Integer.MIN_VALUE to Integer.MAX_VALUE (both inclusive).
      * @return a 32-bit random int.
@@ -18,4 +18,30 @@ public interface RandomnessSource {
      */
     public int next(int bits);
 
+    /**
+     * Fills out with random ints between 0 (inclusive) and bound (exclusive), or with 0 if bound is 0 or negative.
+     * Each item gets the same value that {@link RNG#nextInt(int)} would give if it was called once per item on an RNG
+     * using this RandomnessSource, but without a method call through this interface for each item.
+     *
+     * @param out the array to fill; its length is how many ints will be generated
+     * @param bound the upper bound (exclusive)
+     */
+    public void nextInts(int[] out, int bound);
+
+    /**
+     * Fills out with random longs between Long.MIN_VALUE and Long.MAX_VALUE (both inclusive). These are uniformly
+     * distributed, as with {@link RNG#nextLong()}, but may not be the same values that calling it once per item would
+     * give.
+     *
+     * @param out the array to fill; its length is how many longs will be generated
+     */
+    public void nextLongs(long[] out);
+
+    /**
+     * Fills out with random doubles between 0.0 (inclusive) and 1.0 (exclusive). These are uniformly distributed, as
+     * with {@link RNG#nextDouble()}, but may not be the same values that calling it once per item would give.
+     *
+     * @param out the array to fill; its length is how many doubles will be generated
+     */
+    public void nextDoubles(double[] out);
 }
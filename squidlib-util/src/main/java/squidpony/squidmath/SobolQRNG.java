@@ -470,4 +470,57 @@ public class SobolQRNG implements RandomnessSource {
         return (int) (nextIntVector()[0] & (1L << bits) - 1);
     }
 
-}
\ No newline at end of file
+    /**
+     * Fills out with the same values as calling RNG.nextInt(bound) once per item. Each value uses the first
+     * dimension of one or more new points, as next() does.
+     *
+     * @param out the array to fill
+     * @param bound the upper bound (exclusive)
+     */
+    @Override
+    public void nextInts(int[] out, int bound) {
+        if (bound <= 0) {
+            Arrays.fill(out, 0);
+            return;
+        }
+        final int m = bound - 1;
+        final boolean pow2 = (bound & m) == 0;
+        int r, u;
+        for (int i = 0; i < out.length; i++) {
+            r = next(31);
+            if (pow2) {
+                out[i] = (int) ((bound * (long) r) >> 31);
+                continue;
+            }
+            for (u = r; u - (r = u % bound) + m < 0; ) {
+                u = next(31);
+            }
+            out[i] = r;
+        }
+    }
+
+    /**
+     * Fills out with the same values as calling RNG.nextLong() once per item.
+     *
+     * @param out the array to fill
+     */
+    @Override
+    public void nextLongs(long[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = ((long) next(32) << 32) + next(32);
+        }
+    }
+
+    /**
+     * Fills out with the first dimension of that many new points, each between 0.0 (inclusive) and 1.0 (exclusive).
+     *
+     * @param out the array to fill
+     */
+    @Override
+    public void nextDoubles(double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = nextVector()[0];
+        }
+    }
+
+}
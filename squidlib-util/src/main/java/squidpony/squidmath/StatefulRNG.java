@@ -297,6 +297,19 @@ public class StatefulRNG extends RNG {
         ((StatefulRandomness)random).setState(state);
     }
 
+    /**
+     * Makes a new StatefulRNG using a substream of this one's generator; see {@link StatefulRandomness#substream(long)}.
+     * To generate many work units in parallel with the same results as generating them one after another, give work
+     * unit i the StatefulRNG from substream(i) of one shared root, made before any work starts. This object is not
+     * changed, so the root can be used by many threads to make substreams as long as nothing draws numbers from it.
+     * @param index which substream to make; 0 copies this generator's current state
+     * @return a new StatefulRNG that won't produce the same numbers as any other substream of this one
+     */
+    public StatefulRNG substream(long index)
+    {
+        return new StatefulRNG(((StatefulRandomness)random).substream(index));
+    }
+
     @Override
     public String toString() {
         return "StatefulRNG{" + Long.toHexString(((StatefulRandomness)random).getState()) + "}";
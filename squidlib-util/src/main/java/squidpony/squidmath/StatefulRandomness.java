@@ -17,4 +17,15 @@ public interface StatefulRandomness extends RandomnessSource {
      * @param state a 64-bit long. You should avoid passing 0, even though some implementations can handle that.
      */
     public void setState(long state);
+
+    /**
+     * Makes a new generator of the same kind that starts far ahead in this generator's sequence, so that generators
+     * made with different indices from the same state never produce overlapping sequences, as long as each one is used
+     * for fewer than the amount of numbers its implementation documents. The result only depends on the current state
+     * and index, so splitting work by index gives the same numbers no matter how many threads run it. This generator
+     * is not changed.
+     * @param index which substream to make; 0 copies this generator
+     * @return a new StatefulRandomness of the same kind as this
+     */
+    public StatefulRandomness substream(long index);
 }
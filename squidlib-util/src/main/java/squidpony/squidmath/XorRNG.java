@@ -8,6 +8,8 @@ worldwide. This software is distributed without any warranty.
 See <http://creativecommons.org/publicdomain/zero/1.0/>. */
 package squidpony.squidmath;
 
+import java.util.Arrays;
+
 /**
  * A port of Sebastiano Vigna's XorShift 128+ generator. Should be very fast and produce high-quality output.
  * Original version at http://xorshift.di.unimi.it/xorshift128plus.c
@@ -83,6 +85,69 @@ public class XorRNG implements RandomnessSource {
         return (nextLong() & 1) != 0L;
     }
 
+    @Override
+    public void nextInts(final int[] out, final int bound) {
+        if (bound <= 0) {
+            Arrays.fill(out, 0);
+            return;
+        }
+        final int m = bound - 1;
+        final boolean pow2 = (bound & m) == 0;
+        long s0 = state0, s1 = state1, t;
+        int r, u;
+        for (int i = 0; i < out.length; i++) {
+            t = s0;
+            s0 = s1;
+            t ^= t << 23;
+            r = (int) ((s1 = (t ^ s0 ^ (t >> 17) ^ (s0 >> 26))) + s0) & 0x7FFFFFFF;
+            if (pow2) {
+                out[i] = (int) ((bound * (long) r) >> 31);
+                continue;
+            }
+            for (u = r; u - (r = u % bound) + m < 0; ) {
+                t = s0;
+                s0 = s1;
+                t ^= t << 23;
+                u = (int) ((s1 = (t ^ s0 ^ (t >> 17) ^ (s0 >> 26))) + s0) & 0x7FFFFFFF;
+            }
+            out[i] = r;
+        }
+        state0 = s0;
+        state1 = s1;
+    }
+
+    /**
+     * Fills out with the same values as calling {@link #nextLong()} once per item.
+     */
+    @Override
+    public void nextLongs(final long[] out) {
+        long s0 = state0, s1 = state1, t;
+        for (int i = 0; i < out.length; i++) {
+            t = s0;
+            s0 = s1;
+            t ^= t << 23;
+            out[i] = (s1 = (t ^ s0 ^ (t >> 17) ^ (s0 >> 26))) + s0;
+        }
+        state0 = s0;
+        state1 = s1;
+    }
+
+    /**
+     * Fills out with the same values as calling {@link #nextDouble()} once per item.
+     */
+    @Override
+    public void nextDoubles(final double[] out) {
+        long s0 = state0, s1 = state1, t;
+        for (int i = 0; i < out.length; i++) {
+            t = s0;
+            s0 = s1;
+            t ^= t << 23;
+            out[i] = (((s1 = (t ^ s0 ^ (t >> 17) ^ (s0 >> 26))) + s0) & DOUBLE_MASK) * NORM_53;
+        }
+        state0 = s0;
+        state1 = s1;
+    }
+
     public void nextBytes(final byte[] bytes) {
         int i = bytes.length, n = 0;
         while (i != 0) {
@@ -0,0 +1,205 @@
+package squidpony.squidai;
+
+import org.junit.Test;
+import squidpony.squidgrid.mapping.DungeonGenerator;
+import squidpony.squidmath.Coord;
+import squidpony.squidmath.IntSet;
+import squidpony.squidmath.LightRNG;
+import squidpony.squidmath.RNG;
+import squidpony.squidmath.StatefulRNG;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that DijkstraMap produces the same gradientMap with and without its frontierScan engine.
+ */
+public class DijkstraFrontierTest {
+    @Test
+    public void testScansMatch()
+    {
+        for (long seed = 0xBEEFL; seed < 0xBEEFL + 6; seed++) {
+            StatefulRNG rng = new StatefulRNG(new LightRNG(seed));
+            DungeonGenerator dungeonGenerator = new DungeonGenerator(60, 60, rng);
+            char[][] map = dungeonGenerator.generate();
+            for (DijkstraMap.Measurement m : DijkstraMap.Measurement.values()) {
+                DijkstraMap classic = new DijkstraMap(map, m), flat = new DijkstraMap(map, m);
+                flat.frontierScan = true;
+                LinkedHashSet<Coord> impassable = new LinkedHashSet<>();
+                for (int i = 0; i < 8; i++) {
+                    impassable.add(dungeonGenerator.utility.randomFloor(map));
+                }
+                for (int i = 0; i < 3; i++) {
+                    Coord goal = dungeonGenerator.utility.randomFloor(map);
+                    classic.setGoal(goal);
+                    flat.setGoal(goal);
+                }
+                assertGradientsMatch(classic.scan(impassable), flat.scan(impassable), m);
+                classic.resetMap();
+                flat.resetMap();
+                assertGradientsMatch(classic.partialScan(7, impassable), flat.partialScan(7, impassable), m);
+                classic.resetMap();
+                flat.resetMap();
+                assertGradientsMatch(classic.scan(impassable, 2), flat.scan(impassable, 2), m);
+            }
+        }
+    }
+
+    @Test
+    public void testRepairMatchesScan()
+    {
+        for (long seed = 0xFEEDL; seed < 0xFEEDL + 4; seed++) {
+            StatefulRNG rng = new StatefulRNG(new LightRNG(seed));
+            DungeonGenerator dungeonGenerator = new DungeonGenerator(60, 60, rng);
+            char[][] map = dungeonGenerator.generate();
+            for (DijkstraMap.Measurement m : DijkstraMap.Measurement.values()) {
+                DijkstraMap repaired = new DijkstraMap(map, m);
+                Coord goal = dungeonGenerator.utility.randomFloor(map), other = dungeonGenerator.utility.randomFloor(map);
+                LinkedHashSet<Coord> impassable = new LinkedHashSet<>();
+                repaired.setGoal(goal);
+                repaired.setGoal(other);
+                repaired.incrementalScan(impassable);
+                for (int turn = 0; turn < 12; turn++) {
+                    repaired.removeGoal(goal);
+                    goal = dungeonGenerator.utility.randomFloor(map);
+                    repaired.setGoal(goal);
+                    Coord c = dungeonGenerator.utility.randomFloor(map);
+                    if (!c.equals(goal) && !c.equals(other))
+                        repaired.setCost(c, 1.0 + rng.nextInt(4));
+                    c = dungeonGenerator.utility.randomFloor(map);
+                    if (!impassable.remove(c))
+                        impassable.add(c);
+                    repaired.repairScan(impassable);
+
+                    DijkstraMap full = new DijkstraMap(map, m);
+                    full.frontierScan = true;
+                    full.initializeCost(repaired.costMap);
+                    full.setGoal(goal);
+                    full.setGoal(other);
+                    double[][] expected = full.scan(impassable);
+                    for (int x = 0; x < expected.length; x++) {
+                        for (int y = 0; y < expected[x].length; y++) {
+                            assertEquals(expected[x][y], repaired.gradientMap[x][y], 0.0001);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRemoveGoalKeepsImpassable()
+    {
+        StatefulRNG rng = new StatefulRNG(new LightRNG(0xB10CL));
+        DungeonGenerator dungeonGenerator = new DungeonGenerator(60, 60, rng);
+        char[][] map = dungeonGenerator.generate();
+        for (DijkstraMap.Measurement m : DijkstraMap.Measurement.values()) {
+            DijkstraMap repaired = new DijkstraMap(map, m);
+            Coord goal = dungeonGenerator.utility.randomFloor(map), other = dungeonGenerator.utility.randomFloor(map);
+            // the goal is also impassable, which the goal overrides until it is removed
+            LinkedHashSet<Coord> impassable = new LinkedHashSet<>();
+            impassable.add(goal);
+            repaired.setGoal(goal);
+            repaired.setGoal(other);
+            repaired.incrementalScan(impassable);
+            repaired.removeGoal(goal);
+            repaired.repairScan(impassable);
+
+            DijkstraMap full = new DijkstraMap(map, m);
+            full.frontierScan = true;
+            full.setGoal(other);
+            double[][] expected = full.scan(impassable);
+            for (int x = 0; x < expected.length; x++) {
+                for (int y = 0; y < expected[x].length; y++) {
+                    assertEquals(expected[x][y], repaired.gradientMap[x][y], 0.0001);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBatchMatchesScan()
+    {
+        StatefulRNG rng = new StatefulRNG(new LightRNG(0xBA7C4L));
+        DungeonGenerator dungeonGenerator = new DungeonGenerator(60, 60, rng);
+        char[][] map = dungeonGenerator.generate();
+        DijkstraMap single = new DijkstraMap(map, DijkstraMap.Measurement.EUCLIDEAN);
+        single.frontierScan = true;
+        DijkstraBatch batch = new DijkstraBatch(single, 4);
+        ArrayList<List<Coord>> goalSets = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            goalSets.add(Arrays.asList(dungeonGenerator.utility.randomFloor(map),
+                    dungeonGenerator.utility.randomFloor(map)));
+        }
+        LinkedHashSet<Coord> impassable = new LinkedHashSet<>();
+        impassable.add(dungeonGenerator.utility.randomFloor(map));
+        double[][][] results = batch.scan(goalSets, impassable);
+        for (int i = 0; i < goalSets.size(); i++) {
+            single.resetMap();
+            single.clearGoals();
+            for (Coord g : goalSets.get(i)) {
+                single.setGoal(g);
+            }
+            double[][] expected = single.scan(impassable);
+            for (int x = 0; x < expected.length; x++) {
+                assertArrayEquals(expected[x], results[i][x], 0.0);
+            }
+        }
+        batch.shutdown();
+    }
+
+    @Test
+    public void testEncodedMatches()
+    {
+        for (long seed = 0xC0DEL; seed < 0xC0DEL + 4; seed++) {
+            StatefulRNG rng = new StatefulRNG(new LightRNG(seed));
+            DungeonGenerator dungeonGenerator = new DungeonGenerator(60, 60, rng);
+            char[][] map = dungeonGenerator.generate();
+            for (DijkstraMap.Measurement m : DijkstraMap.Measurement.values()) {
+                DijkstraMap boxed = new DijkstraMap(map, m), encoded = new DijkstraMap(map, m);
+                boxed.frontierScan = true;
+                boxed.rng = new RNG(new LightRNG(seed));
+                encoded.rng = new RNG(new LightRNG(seed));
+                LinkedHashSet<Coord> impassable = new LinkedHashSet<>();
+                IntSet impassableCodes = new IntSet();
+                for (int i = 0; i < 8; i++) {
+                    Coord c = dungeonGenerator.utility.randomFloor(map);
+                    impassable.add(c);
+                    impassableCodes.add(c.encode());
+                }
+                Coord goal = dungeonGenerator.utility.randomFloor(map);
+                boxed.setGoal(goal);
+                encoded.setGoal(goal);
+                assertGradientsMatch(boxed.scan(impassable), encoded.scanEncoded(impassableCodes),
+                        DijkstraMap.Measurement.MANHATTAN);
+                for (int i = 0; i < 5; i++) {
+                    Coord start = dungeonGenerator.utility.randomFloor(map),
+                            target = dungeonGenerator.utility.randomFloor(map);
+                    ArrayList<Coord> path = boxed.findPath(20, impassable, null, start, target);
+                    int[] codes = encoded.findPath(20, impassableCodes, null, start.encode(), target.encode());
+                    assertEquals(path.size(), codes.length);
+                    for (int j = 0; j < codes.length; j++) {
+                        assertEquals(path.get(j), Coord.decode(codes[j]));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void assertGradientsMatch(double[][] expected, double[][] actual, DijkstraMap.Measurement m)
+    {
+        for (int x = 0; x < expected.length; x++) {
+            for (int y = 0; y < expected[x].length; y++) {
+                // the wave-based scan can overestimate a few Euclidean distances; the frontier never does
+                if (m == DijkstraMap.Measurement.EUCLIDEAN)
+                    assertTrue(actual[x][y] <= expected[x][y] + 0.0001);
+                else
+                    assertEquals(expected[x][y], actual[x][y], 0.0001);
+            }
+        }
+    }
+}
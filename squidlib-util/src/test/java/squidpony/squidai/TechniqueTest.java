@@ -0,0 +1,92 @@
+package squidpony.squidai;
+
+import org.junit.Test;
+import squidpony.squidgrid.Radius;
+import squidpony.squidgrid.mapping.DungeonGenerator;
+import squidpony.squidmath.Coord;
+import squidpony.squidmath.IntDoubleMap;
+import squidpony.squidmath.IntSet;
+import squidpony.squidmath.LightRNG;
+import squidpony.squidmath.StatefulRNG;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that Technique's overloads for encoded positions find the same locations and targets as the Coord ones.
+ */
+public class TechniqueTest {
+    @Test
+    public void testEncodedMatches()
+    {
+        StatefulRNG rng = new StatefulRNG(new LightRNG(0x7EC4L));
+        DungeonGenerator dungeonGenerator = new DungeonGenerator(40, 40, rng);
+        char[][] map = dungeonGenerator.generate();
+        Technique boxed = new Technique("burst", new BurstAOE(Coord.get(1, 1), 2, Radius.SQUARE, 1, 6)),
+                encoded = new Technique("burst", new BurstAOE(Coord.get(1, 1), 2, Radius.SQUARE, 1, 6));
+        boxed.setMap(map);
+        encoded.setMap(map);
+        int checked = 0;
+        for (int round = 0; round < 40; round++) {
+            Coord user = dungeonGenerator.utility.randomFloor(map);
+            LinkedHashSet<Coord> targets = new LinkedHashSet<>(), lesser = new LinkedHashSet<>(),
+                    exclusions = new LinkedHashSet<>();
+            IntSet targetCodes = new IntSet(), lesserCodes = new IntSet(), exclusionCodes = new IntSet();
+            for (int i = 0; i < 6; i++) {
+                Coord c = user.translate(rng.between(-5, 6), rng.between(-5, 6));
+                if (c.x < 0 || c.y < 0 || c.x >= map.length || c.y >= map[0].length || map[c.x][c.y] == '#'
+                        || c.equals(user))
+                    continue;
+                if (i == 0) {
+                    exclusions.add(c);
+                    exclusionCodes.add(c.encode());
+                } else if (i < 3) {
+                    lesser.add(c);
+                    lesserCodes.add(c.encode());
+                } else {
+                    targets.add(c);
+                    targetCodes.add(c.encode());
+                }
+            }
+            // BurstAOE needs at least one position of each kind to search from
+            if (targets.isEmpty() || lesser.isEmpty() || exclusions.isEmpty())
+                continue;
+            LinkedHashMap<Coord, ArrayList<Coord>> expected = boxed.idealLocations(user, targets, exclusions);
+            assertLocationsMatch(expected, encoded.idealLocations(user.encode(), targetCodes, exclusionCodes));
+            assertLocationsMatch(boxed.idealLocations(user, targets, lesser, exclusions),
+                    encoded.idealLocations(user.encode(), targetCodes, lesserCodes, exclusionCodes));
+
+            for (Coord aim : expected.keySet()) {
+                LinkedHashMap<Coord, Double> area = boxed.apply(user, aim);
+                IntDoubleMap encodedArea = encoded.apply(user.encode(), aim.encode());
+                assertEquals(area.size(), encodedArea.size());
+                for (Map.Entry<Coord, Double> e : area.entrySet()) {
+                    assertTrue(encodedArea.containsKey(e.getKey().encode()));
+                    assertEquals(e.getValue(), encodedArea.get(e.getKey().encode()), 0.0);
+                }
+                checked++;
+            }
+        }
+        assertTrue(checked > 0);
+    }
+
+    private static void assertLocationsMatch(LinkedHashMap<Coord, ArrayList<Coord>> expected,
+                                             LinkedHashMap<Integer, IntSet> actual)
+    {
+        assertEquals(expected.size(), actual.size());
+        Iterator<Map.Entry<Integer, IntSet>> it = actual.entrySet().iterator();
+        for (Map.Entry<Coord, ArrayList<Coord>> e : expected.entrySet()) {
+            Map.Entry<Integer, IntSet> a = it.next();
+            assertEquals(e.getKey(), Coord.decode(a.getKey()));
+            assertEquals(new LinkedHashSet<>(e.getValue()).size(), a.getValue().size());
+            for (Coord c : e.getValue()) {
+                assertTrue(a.getValue().contains(c.encode()));
+            }
+        }
+    }
+}
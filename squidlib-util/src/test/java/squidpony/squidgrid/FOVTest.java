@@ -0,0 +1,60 @@
+package squidpony.squidgrid;
+
+import org.junit.Test;
+import squidpony.squidgrid.mapping.DungeonGenerator;
+import squidpony.squidgrid.mapping.DungeonUtility;
+import squidpony.squidmath.Coord;
+import squidpony.squidmath.LightRNG;
+import squidpony.squidmath.StatefulRNG;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that FOV's buffered calculateFOV overloads give the same light as the allocating ones when one buffer is
+ * reused across many viewers, and when the buffer changes between calls.
+ */
+public class FOVTest {
+    private static final int[] TYPES = {FOV.RIPPLE, FOV.RIPPLE_LOOSE, FOV.RIPPLE_TIGHT, FOV.RIPPLE_VERY_LOOSE,
+            FOV.SHADOW};
+    private static final Radius[] RADII = {Radius.SQUARE, Radius.DIAMOND, Radius.CIRCLE};
+
+    @Test
+    public void testBufferedMatchesAllocating()
+    {
+        StatefulRNG rng = new StatefulRNG(new LightRNG(0xF0BL));
+        DungeonGenerator dungeonGenerator = new DungeonGenerator(50, 40, rng);
+        char[][] map = dungeonGenerator.generate();
+        double[][] resistances = DungeonUtility.generateResistances(map);
+        for (int type : TYPES) {
+            FOV buffered = new FOV(type), allocating = new FOV(type);
+            double[][] first = new double[map.length][map[0].length],
+                    second = new double[map.length][map[0].length];
+            for (int i = 0; i < 60; i++) {
+                Coord viewer = dungeonGenerator.utility.randomFloor(map);
+                double radius = rng.between(1, 13);
+                Radius technique = RADII[rng.nextInt(RADII.length)];
+                // every so often switch to the other buffer for one call, then come back
+                double[][] light = (i % 7 == 3) ? second : first;
+                if (i % 5 == 4) {
+                    double angle = rng.nextInt(360), span = rng.between(30, 270);
+                    assertSame(light, buffered.calculateFOV(resistances, viewer.x, viewer.y, radius, technique,
+                            angle, span, light));
+                    assertLightMatches(allocating.calculateFOV(resistances, viewer.x, viewer.y, radius, technique,
+                            angle, span), light);
+                } else {
+                    assertSame(light, buffered.calculateFOV(resistances, viewer.x, viewer.y, radius, technique,
+                            light));
+                    assertLightMatches(allocating.calculateFOV(resistances, viewer.x, viewer.y, radius, technique),
+                            light);
+                }
+            }
+        }
+    }
+
+    private static void assertLightMatches(double[][] expected, double[][] actual)
+    {
+        for (int x = 0; x < expected.length; x++) {
+            assertArrayEquals(expected[x], actual[x], 0.0);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package squidpony.squidgrid;
+
+import org.junit.Test;
+import squidpony.squidmath.Coord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks which pairs of cells LOS.ELIAS can see between on a small fixed map, and that the path it reports is the
+ * same every time.
+ */
+public class LOSTest {
+    private static final String[] ROWS = {
+            "###########",
+            "#....#....#",
+            "#....#....#",
+            "#.#..#....#",
+            "#....#....#",
+            "#.........#",
+            "###########"};
+
+    private static char[][] map()
+    {
+        char[][] map = new char[ROWS[0].length()][ROWS.length];
+        for (int y = 0; y < ROWS.length; y++) {
+            for (int x = 0; x < ROWS[y].length(); x++) {
+                map[x][y] = ROWS[y].charAt(x);
+            }
+        }
+        return map;
+    }
+
+    @Test
+    public void testEliasReachable()
+    {
+        char[][] map = map();
+        LOS los = new LOS(LOS.ELIAS);
+        assertTrue(los.isReachable(map, 1, 1, 4, 4));
+        assertTrue(los.isReachable(map, 1, 5, 9, 5));
+        assertTrue(los.isReachable(map, 4, 4, 1, 1));
+        // around the pillar at (2, 3), which a single Bresenham line can't do
+        assertTrue(los.isReachable(map, 1, 3, 4, 2));
+        assertFalse(new LOS(LOS.BRESENHAM).isReachable(map, 1, 3, 4, 2));
+
+        assertFalse(los.isReachable(map, 1, 1, 8, 1));
+        assertFalse(los.isReachable(map, 1, 3, 3, 3));
+        assertFalse(los.isReachable(map, 3, 1, 8, 5));
+        assertFalse(los.isReachable(map, 4, 1, 6, 4));
+        assertFalse(los.isReachable(map, 9, 1, 1, 4));
+        assertFalse(los.isReachable(map, 2, 2, 9, 4));
+    }
+
+    @Test
+    public void testEliasLastPath()
+    {
+        char[][] map = map();
+        LOS los = new LOS(LOS.ELIAS);
+        assertTrue(los.isReachable(map, 1, 3, 4, 2));
+        List<Coord> path = new ArrayList<>(los.getLastPath());
+        // the first midpoint along the line that sees both ends is (2, 2), so the path goes through it
+        assertEquals(Arrays.asList(Coord.get(1, 3), Coord.get(1, 3), Coord.get(2, 2), Coord.get(2, 2),
+                Coord.get(2, 2), Coord.get(3, 2), Coord.get(4, 2)), path);
+        // midpoints are tried in a fixed order, so asking again, even from another LOS, gives the same path
+        for (int i = 0; i < 10; i++) {
+            LOS other = new LOS(LOS.ELIAS);
+            assertTrue(other.isReachable(map, 1, 3, 4, 2));
+            assertEquals(path, new ArrayList<>(other.getLastPath()));
+            assertTrue(los.isReachable(map, 1, 3, 4, 2));
+            assertEquals(path, new ArrayList<>(los.getLastPath()));
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package squidpony.squidgrid;
+
+import org.junit.Test;
+import squidpony.squidgrid.mapping.DungeonGenerator;
+import squidpony.squidmath.Coord;
+import squidpony.squidmath.IntDoubleMap;
+import squidpony.squidmath.IntSet;
+import squidpony.squidmath.LightRNG;
+import squidpony.squidmath.StatefulRNG;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that SoundMap produces the same results with and without its frontierScan engine.
+ */
+public class SoundMapTest {
+    @Test
+    public void testScansMatch()
+    {
+        for (long seed = 0xBEEFL; seed < 0xBEEFL + 4; seed++) {
+            StatefulRNG rng = new StatefulRNG(new LightRNG(seed));
+            DungeonGenerator dungeonGenerator = new DungeonGenerator(70, 50, rng);
+            char[][] map = dungeonGenerator.generate();
+            for (SoundMap.Measurement m : SoundMap.Measurement.values()) {
+                SoundMap classic = new SoundMap(map, m), flat = new SoundMap(map, m);
+                flat.frontierScan = true;
+                LinkedHashSet<Coord> creatures = new LinkedHashSet<Coord>();
+                for (int i = 0; i < 20; i++) {
+                    creatures.add(dungeonGenerator.utility.randomFloor(map));
+                }
+                // several rounds, so the flat engine has to clean up after its previous scan
+                for (int round = 0; round < 3; round++) {
+                    HashMap<Coord, Double> noises = new HashMap<Coord, Double>();
+                    for (int i = 0; i < 3; i++) {
+                        noises.put(dungeonGenerator.utility.randomFloor(map), (double) rng.between(3, 15));
+                    }
+                    classic.clearSounds();
+                    flat.clearSounds();
+                    assertEquals(classic.findAlerted(creatures, noises), flat.findAlerted(creatures, noises));
+                    for (int x = 0; x < map.length; x++) {
+                        for (int y = 0; y < map[0].length; y++) {
+                            assertEquals(classic.gradientMap[x][y], flat.gradientMap[x][y], 0.0);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFrontierAfterOtherChanges()
+    {
+        StatefulRNG rng = new StatefulRNG(new LightRNG(0xD127L));
+        DungeonGenerator dungeonGenerator = new DungeonGenerator(50, 50, rng);
+        char[][] map = dungeonGenerator.generate();
+        SoundMap classic = new SoundMap(map), flat = new SoundMap(map);
+        flat.frontierScan = true;
+        LinkedHashSet<Coord> creatures = new LinkedHashSet<Coord>();
+        for (int i = 0; i < 20; i++) {
+            creatures.add(dungeonGenerator.utility.randomFloor(map));
+        }
+        for (int round = 0; round < 6; round++) {
+            HashMap<Coord, Double> noises = new HashMap<Coord, Double>();
+            for (int i = 0; i < 3; i++) {
+                noises.put(dungeonGenerator.utility.randomFloor(map), (double) rng.between(3, 15));
+            }
+            // change gradientMap outside the frontier: walls left by setOccupied, or a whole scan in the other mode
+            if (round % 2 == 0) {
+                for (int i = 0; i < 40; i++) {
+                    Coord c = dungeonGenerator.utility.randomFloor(map);
+                    flat.setOccupied(c.x, c.y);
+                }
+            } else {
+                flat.frontierScan = false;
+                flat.clearSounds();
+                flat.setSound(dungeonGenerator.utility.randomFloor(map), 20);
+                flat.scan();
+                flat.frontierScan = true;
+            }
+            classic.clearSounds();
+            flat.clearSounds();
+            assertEquals(classic.findAlerted(creatures, noises), flat.findAlerted(creatures, noises));
+            for (int x = 0; x < map.length; x++) {
+                for (int y = 0; y < map[0].length; y++) {
+                    assertEquals(classic.gradientMap[x][y], flat.gradientMap[x][y], 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFindAlertedBy()
+    {
+        StatefulRNG rng = new StatefulRNG(new LightRNG(0xFACADEL));
+        DungeonGenerator dungeonGenerator = new DungeonGenerator(60, 60, rng);
+        char[][] map = dungeonGenerator.generate();
+        SoundMap all = new SoundMap(map), single = new SoundMap(map);
+        LinkedHashSet<Coord> creatures = new LinkedHashSet<Coord>();
+        for (int i = 0; i < 30; i++) {
+            creatures.add(dungeonGenerator.utility.randomFloor(map));
+        }
+        Coord[] sources = new Coord[12];
+        double[] loudness = new double[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = dungeonGenerator.utility.randomFloor(map);
+            loudness[i] = rng.between(4, 20);
+        }
+        HashMap<Coord, Integer> heard = all.findAlertedBy(creatures, sources, loudness);
+        HashMap<Coord, Double> levels = all.alerted;
+        for (Coord c : creatures) {
+            double best = 0.0;
+            int id = heard.get(c);
+            for (int i = 0; i < sources.length; i++) {
+                HashMap<Coord, Double> one = new HashMap<Coord, Double>();
+                one.put(sources[i], loudness[i]);
+                single.clearSounds();
+                double level = single.findAlerted(creatures, one).get(c);
+                best = Math.max(best, level);
+                if (i == id)
+                    assertEquals(level, levels.get(c), 0.0);
+            }
+            assertEquals(best, levels.get(c), 0.0);
+            assertEquals(best > 0.0, id >= 0);
+        }
+    }
+
+    @Test
+    public void testEncodedFindAlerted()
+    {
+        StatefulRNG rng = new StatefulRNG(new LightRNG(0xA1E7L));
+        DungeonGenerator dungeonGenerator = new DungeonGenerator(60, 60, rng);
+        char[][] map = dungeonGenerator.generate();
+        SoundMap boxed = new SoundMap(map), encoded = new SoundMap(map);
+        LinkedHashSet<Coord> creatures = new LinkedHashSet<Coord>();
+        IntSet creatureCodes = new IntSet();
+        for (int i = 0; i < 25; i++) {
+            Coord c = dungeonGenerator.utility.randomFloor(map);
+            creatures.add(c);
+            creatureCodes.add(c.encode());
+        }
+        for (int round = 0; round < 3; round++) {
+            HashMap<Coord, Double> noises = new HashMap<Coord, Double>();
+            IntDoubleMap noiseCodes = new IntDoubleMap();
+            for (int i = 0; i < 4; i++) {
+                Coord c = dungeonGenerator.utility.randomFloor(map);
+                double level = rng.between(3, 15);
+                noises.put(c, level);
+                noiseCodes.put(c.encode(), level);
+            }
+            boxed.clearSounds();
+            encoded.clearSounds();
+            HashMap<Coord, Double> expected = boxed.findAlerted(creatures, noises);
+            IntDoubleMap heard = encoded.findAlerted(creatureCodes, noiseCodes);
+            assertEquals(expected.size(), heard.size());
+            for (Coord c : creatures) {
+                assertEquals(expected.get(c), heard.get(c.encode()), 0.0);
+            }
+        }
+    }
+}
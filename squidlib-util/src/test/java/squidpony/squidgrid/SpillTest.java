@@ -0,0 +1,148 @@
+package squidpony.squidgrid;
+
+import org.junit.Test;
+import squidpony.squidgrid.mapping.DungeonGenerator;
+import squidpony.squidmath.Coord;
+import squidpony.squidmath.IntSet;
+import squidpony.squidmath.LightRNG;
+import squidpony.squidmath.StatefulRNG;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that Spill's frontierSpill engine fills valid, connected areas and repeats itself for the same seed.
+ */
+public class SpillTest {
+    @Test
+    public void testFrontierSpill()
+    {
+        StatefulRNG rng = new StatefulRNG(new LightRNG(0x5EEDL));
+        DungeonGenerator dungeonGenerator = new DungeonGenerator(80, 60, rng);
+        char[][] map = dungeonGenerator.generate();
+        for (Spill.Measurement m : Spill.Measurement.values()) {
+            Coord entry = dungeonGenerator.utility.randomFloor(map);
+            LinkedHashSet<Coord> impassable = new LinkedHashSet<Coord>();
+            for (int i = 0; i < 10; i++) {
+                Coord c = dungeonGenerator.utility.randomFloor(map);
+                if(!c.equals(entry))
+                    impassable.add(c);
+            }
+            Spill first = new Spill(map, m, new LightRNG(123L)), second = new Spill(map, m, new LightRNG(123L));
+            first.frontierSpill = true;
+            second.frontierSpill = true;
+            ArrayList<Coord> a = first.start(entry, 300, impassable), b = second.start(entry, 300, impassable);
+            assertEquals(a, b);
+            assertEquals(300, a.size());
+            assertEquals(300, first.filled);
+            assertEquals(entry, a.get(0));
+            int count = 0;
+            for (int x = 0; x < map.length; x++) {
+                for (int y = 0; y < map[0].length; y++) {
+                    if(first.spillMap[x][y]) {
+                        count++;
+                        assertTrue(map[x][y] != '#');
+                        assertFalse(impassable.contains(Coord.get(x, y)));
+                    }
+                }
+            }
+            assertEquals(300, count);
+            for (int i = 1; i < a.size(); i++) {
+                Coord c = a.get(i);
+                boolean touching = false;
+                for (int j = 0; j < i && !touching; j++) {
+                    touching = (m == Spill.Measurement.MANHATTAN)
+                            ? Math.abs(c.x - a.get(j).x) + Math.abs(c.y - a.get(j).y) == 1
+                            : Math.max(Math.abs(c.x - a.get(j).x), Math.abs(c.y - a.get(j).y)) == 1;
+                }
+                assertTrue(touching);
+            }
+            // growing further should keep the filled area and add to it
+            first.start(entry, 600, impassable);
+            for (Coord c : a) {
+                assertTrue(first.spillMap[c.x][c.y]);
+            }
+        }
+    }
+
+    @Test
+    public void testMultiStart()
+    {
+        StatefulRNG rng = new StatefulRNG(new LightRNG(0xF1L));
+        DungeonGenerator dungeonGenerator = new DungeonGenerator(80, 60, rng);
+        char[][] map = dungeonGenerator.generate();
+        Coord[] entries = new Coord[4];
+        int[] volumes = {100, 200, 50, 150};
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = dungeonGenerator.utility.randomFloor(map);
+        }
+        Spill first = new Spill(map, Spill.Measurement.MANHATTAN, new LightRNG(99L)),
+                second = new Spill(map, Spill.Measurement.MANHATTAN, new LightRNG(99L));
+        int[][] owners = first.multiStart(entries, volumes, null);
+        second.start(entries[0], 10, null);
+        second.lrng.setState(99L);
+        assertArrayEquals(owners, second.multiStart(entries, volumes, null));
+        int[] sizes = new int[entries.length];
+        for (int x = 0; x < map.length; x++) {
+            for (int y = 0; y < map[0].length; y++) {
+                int o = owners[x][y];
+                assertEquals(o >= 0, first.spillMap[x][y]);
+                if(o < 0)
+                    continue;
+                sizes[o]++;
+                assertTrue(map[x][y] != '#');
+                // every filled cell other than an entry touches a cell of the same region
+                if(entries[o].x == x && entries[o].y == y)
+                    continue;
+                boolean touching = false;
+                for (Direction d : Direction.CARDINALS) {
+                    touching |= owners[x + d.deltaX][y + d.deltaY] == o;
+                }
+                assertTrue(touching);
+            }
+        }
+        int total = 0;
+        for (int i = 0; i < sizes.length; i++) {
+            assertTrue(sizes[i] <= volumes[i]);
+            total += sizes[i];
+        }
+        assertEquals(total, first.filled);
+        assertEquals(total, first.spreadPattern.size());
+    }
+
+    @Test
+    public void testEncodedStart()
+    {
+        StatefulRNG rng = new StatefulRNG(new LightRNG(0xE7L));
+        DungeonGenerator dungeonGenerator = new DungeonGenerator(80, 60, rng);
+        char[][] map = dungeonGenerator.generate();
+        Coord entry = dungeonGenerator.utility.randomFloor(map);
+        LinkedHashSet<Coord> impassable = new LinkedHashSet<Coord>();
+        IntSet impassableCodes = new IntSet();
+        for (int i = 0; i < 10; i++) {
+            Coord c = dungeonGenerator.utility.randomFloor(map);
+            if(!c.equals(entry)) {
+                impassable.add(c);
+                impassableCodes.add(c.encode());
+            }
+        }
+        Spill boxed = new Spill(map, Spill.Measurement.CHEBYSHEV, new LightRNG(5L)),
+                encoded = new Spill(map, Spill.Measurement.CHEBYSHEV, new LightRNG(5L));
+        boxed.frontierSpill = true;
+        for (int volume = 100; volume <= 400; volume += 150) {
+            ArrayList<Coord> a = boxed.start(entry, volume, impassable);
+            int[] b = encoded.start(entry.encode(), volume, impassableCodes);
+            assertEquals(a.size(), b.length);
+            assertEquals(boxed.filled, encoded.filled);
+            for (int i = 0; i < b.length; i++) {
+                assertEquals(a.get(i), Coord.decode(b[i]));
+            }
+        }
+        for (int x = 0; x < map.length; x++) {
+            assertTrue(Arrays.equals(boxed.spillMap[x], encoded.spillMap[x]));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package squidpony.squidmath;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import squidpony.squidgrid.mapping.DungeonGenerator;
+
+import java.util.Queue;
+
+/**
+ * test to check that {@link AStarSearch#pathInto(int, int, int, int, int[])} finds paths as cheap as
+ * {@link AStarSearch#path(int, int, int, int)} for every search type
+ */
+public class AStarSearchTest {
+
+	@Test
+	public void testPathIntoMatchesPath() {
+		StatefulRNG rng = new StatefulRNG(new LightRNG(0xA57A4L));
+		DungeonGenerator dungeonGenerator = new DungeonGenerator(40, 40, rng);
+		char[][] dungeon = dungeonGenerator.generate();
+		for (int pass = 0; pass < 2; pass++) {
+			boolean uniform = pass == 0;
+			double[][] map = new double[dungeon.length][dungeon[0].length];
+			for (int x = 0; x < map.length; x++) {
+				for (int y = 0; y < map[0].length; y++) {
+					map[x][y] = dungeon[x][y] == '#' ? -1 : uniform ? 0 : rng.nextInt(4);
+				}
+			}
+			checkSearches(dungeonGenerator, dungeon, map, uniform);
+		}
+	}
+
+	private static void checkSearches(DungeonGenerator dungeonGenerator, char[][] dungeon, double[][] map,
+			boolean uniform) {
+		int width = map.length;
+		for (AStarSearch.SearchType type : AStarSearch.SearchType.values()) {
+			// one instance for every search, so stamps from earlier calls have to be ignored
+			AStarSearch search = new AStarSearch(map, type);
+			int[] steps = new int[width * map[0].length];
+			for (int i = 0; i < 12; i++) {
+				Coord start = dungeonGenerator.utility.randomFloor(dungeon),
+						target = dungeonGenerator.utility.randomFloor(dungeon);
+				if (start.equals(target))
+					continue;
+				Queue<Coord> expected = search.path(start.x, start.y, target.x, target.y);
+				assertNotNull(expected);
+				double expectedCost = 0;
+				for (Coord c : expected) {
+					expectedCost += map[c.x][c.y] + 1;
+				}
+				int length = search.pathInto(start.x, start.y, target.x, target.y, steps);
+				double cost = 0;
+				int px = start.x, py = start.y, x, y;
+				for (int s = 0; s < length; s++) {
+					x = steps[s] % width;
+					y = steps[s] / width;
+					assertTrue(map[x][y] >= 0);
+					if (type == AStarSearch.SearchType.MANHATTAN)
+						assertEquals(1, Math.abs(x - px) + Math.abs(y - py));
+					else
+						assertEquals(1, Math.max(Math.abs(x - px), Math.abs(y - py)));
+					cost += map[x][y] + 1;
+					px = x;
+					py = y;
+				}
+				assertEquals(target.x, px);
+				assertEquals(target.y, py);
+				assertEquals(expectedCost, cost, 0.0001);
+				// with varied costs, equally cheap paths can take different numbers of steps
+				if (uniform)
+					assertEquals(expected.size(), length);
+
+				// a short array gets the first steps and the full length is still returned
+				int[] shortSteps = new int[length / 2];
+				assertEquals(length, search.pathInto(start.x, start.y, target.x, target.y, shortSteps));
+				for (int s = 0; s < shortSteps.length; s++) {
+					assertEquals(steps[s], shortSteps[s]);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testNoPath() {
+		double[][] map = new double[9][9];
+		for (int i = 0; i < 9; i++) {
+			map[4][i] = -1;
+		}
+		for (AStarSearch.SearchType type : AStarSearch.SearchType.values()) {
+			AStarSearch search = new AStarSearch(map, type);
+			int[] steps = new int[81];
+			assertEquals(-1, search.pathInto(1, 1, 7, 7, steps));
+			assertEquals(-1, search.pathInto(1, 1, 9, 1, steps));
+			// a path on the same side still works after a failed search
+			assertEquals(type == AStarSearch.SearchType.MANHATTAN ? 4 : 2, search.pathInto(1, 1, 3, 3, steps));
+			assertEquals(-1, search.pathInto(7, 7, 0, 0, steps));
+		}
+	}
+}
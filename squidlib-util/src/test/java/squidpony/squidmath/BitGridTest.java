@@ -0,0 +1,136 @@
+package squidpony.squidmath;
+
+import org.junit.Test;
+import squidpony.squidgrid.Direction;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks BitGrid against the same operations done cell-by-cell on boolean[][] maps.
+ */
+public class BitGridTest {
+
+    private static boolean[][] randomMap(StatefulRNG rng, int width, int height, double chance) {
+        boolean[][] map = new boolean[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                map[x][y] = rng.nextDouble() < chance;
+            }
+        }
+        return map;
+    }
+
+    private static boolean at(boolean[][] map, int x, int y) {
+        return x >= 0 && y >= 0 && x < map.length && y < map[0].length && map[x][y];
+    }
+
+    private static boolean[][] morph(boolean[][] map, boolean dilate, boolean eightWay) {
+        int width = map.length, height = map[0].length;
+        boolean[][] result = new boolean[width][height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                boolean v = map[x][y];
+                for (int dx = -1; dx <= 1; dx++) {
+                    for (int dy = -1; dy <= 1; dy++) {
+                        if ((dx == 0 && dy == 0) || (!eightWay && dx != 0 && dy != 0))
+                            continue;
+                        v = dilate ? v || at(map, x + dx, y + dy) : v && at(map, x + dx, y + dy);
+                    }
+                }
+                result[x][y] = v;
+            }
+        }
+        return result;
+    }
+
+    private static void assertSame(boolean[][] expected, BitGrid grid) {
+        int count = 0;
+        for (int x = 0; x < grid.width; x++) {
+            for (int y = 0; y < grid.height; y++) {
+                assertEquals(expected[x][y], grid.get(x, y));
+                if (expected[x][y])
+                    count++;
+            }
+        }
+        assertEquals(count, grid.count());
+    }
+
+    @Test
+    public void testOperations() {
+        StatefulRNG rng = new StatefulRNG(new LightRNG(0x1337BEEFL));
+        int[][] sizes = {{37, 100}, {20, 64}, {9, 130}};
+        for (int[] size : sizes) {
+            int width = size[0], height = size[1];
+            boolean[][] a = randomMap(rng, width, height, 0.4), b = randomMap(rng, width, height, 0.6),
+                    expected = new boolean[width][height];
+            BitGrid ga = new BitGrid(a), gb = new BitGrid(b);
+            assertSame(a, ga);
+
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    expected[x][y] = a[x][y] && !b[x][y];
+                }
+            }
+            assertSame(expected, ga.copy().andNot(gb));
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    expected[x][y] = !(a[x][y] ^ b[x][y]);
+                }
+            }
+            assertSame(expected, ga.copy().xor(gb).not());
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    expected[x][y] = a[x][y] || b[x][y];
+                }
+            }
+            assertSame(expected, ga.copy().or(gb));
+
+            assertSame(morph(a, true, false), ga.copy().expand());
+            assertSame(morph(a, true, true), ga.copy().expand8way());
+            assertSame(morph(b, false, false), gb.copy().retract());
+            assertSame(morph(b, false, true), gb.copy().retract8way());
+
+            int[][] shifts = {{1, 0}, {0, 1}, {-3, -70}, {5, 65}, {0, -64}, {-1, 1}};
+            for (int[] s : shifts) {
+                for (int x = 0; x < width; x++) {
+                    for (int y = 0; y < height; y++) {
+                        expected[x][y] = at(a, x - s[0], y - s[1]);
+                    }
+                }
+                assertSame(expected, ga.copy().shift(s[0], s[1]));
+            }
+            assertEquals(ga.copy().shift(Direction.UP_LEFT), ga.copy().shift(-1, -1));
+        }
+    }
+
+    @Test
+    public void testConversions() {
+        StatefulRNG rng = new StatefulRNG(new LightRNG(0xDEADL));
+        int width = 90, height = 140;
+        boolean[][] map = randomMap(rng, width, height, 0.3);
+        BitGrid grid = new BitGrid(map);
+        short[] packed = grid.toPacked();
+        assertArrayEquals(CoordPacker.pack(map), packed);
+        assertEquals(grid, new BitGrid(packed, width, height));
+
+        boolean[][] back = grid.toBooleans();
+        for (int x = 0; x < width; x++) {
+            assertTrue(Arrays.equals(map[x], back[x]));
+        }
+
+        Coord[] all = grid.asCoords();
+        assertEquals(grid.count(), all.length);
+        int n = 0;
+        for (Coord c = grid.first(); c != null; c = grid.next(c)) {
+            assertEquals(all[n++], c);
+            assertTrue(map[c.x][c.y]);
+        }
+        assertEquals(all.length, n);
+
+        assertTrue(new BitGrid(width, height).first() == null);
+        assertArrayEquals(CoordPacker.ALL_WALL, new BitGrid(width, height).toPacked());
+        assertEquals(width * height, new BitGrid(width, height).fill().count());
+    }
+}
@@ -0,0 +1,82 @@
+package squidpony.squidmath;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * test to check that {@link ConcurrentRNG} gives each thread and task its own reproducible numbers
+ */
+public class ConcurrentRNGTest {
+
+	@Test
+	public void testForTask() throws InterruptedException {
+		final ConcurrentRNG shared = new ConcurrentRNG(0x1234L);
+		final long[][] results = new long[16][];
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		for (int i = 0; i < results.length; i++) {
+			final int task = i;
+			pool.execute(new Runnable() {
+				@Override
+				public void run() {
+					results[task] = shared.forTask(task).nextLongs(new long[64]);
+				}
+			});
+		}
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+		ConcurrentRNG alone = new ConcurrentRNG(0x1234L);
+		HashSet<Long> seen = new HashSet<>();
+		for (int i = 0; i < results.length; i++) {
+			assertArrayEquals(alone.forTask(i).nextLongs(new long[64]), results[i]);
+			for (long l : results[i]) {
+				assertTrue(seen.add(l));
+			}
+		}
+	}
+
+	@Test
+	public void testPerThread() throws InterruptedException {
+		final ConcurrentRNG shared = new ConcurrentRNG(0x5678L);
+		final long[][] results = new long[4][];
+		final double[] gaussians = new double[4];
+		Thread[] threads = new Thread[results.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int t = i;
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					long[] r = new long[1000];
+					for (int j = 0; j < r.length; j++) {
+						r[j] = shared.nextLong();
+					}
+					results[t] = r;
+					for (int j = 0; j < 1000; j++) {
+						gaussians[t] += shared.nextGaussian();
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		HashSet<Long> seen = new HashSet<>();
+		for (long[] r : results) {
+			for (long l : r) {
+				assertTrue(seen.add(l));
+			}
+		}
+		for (double g : gaussians) {
+			assertEquals(0.0, g / 1000.0, 0.2);
+		}
+		// the first thread to use a ConcurrentRNG gets the substream at index -1
+		ConcurrentRNG first = new ConcurrentRNG(0x5678L);
+		assertEquals(new StatefulRNG(new LightRNG(0x5678L).substream(-1L)).nextLong(), first.nextLong());
+	}
+}
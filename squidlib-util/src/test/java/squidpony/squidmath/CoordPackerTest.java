@@ -106,6 +106,145 @@ public class CoordPackerTest {
 
 
     }
+    @Test
+    public void testIndexedQuery()
+    {
+        StatefulRNG rng = new StatefulRNG(new LightRNG(0xAAAA2D2));
+        DungeonGenerator dungeonGenerator = new DungeonGenerator(120, 120, rng);
+        char[][] map = dungeonGenerator.generate(TilesetType.DEFAULT_DUNGEON);
+        FOV fov = new FOV();
+        double[][] resMap = DungeonUtility.generateResistances(map);
+        for (int t = 0; t < 20; t++) {
+            Coord viewer = dungeonGenerator.utility.randomFloor(map);
+            short[] packed = CoordPacker.pack(fov.calculateFOV(resMap, viewer.x, viewer.y, FOV_RANGE, RADIUS));
+            boolean[][] unpacked = CoordPacker.unpack(packed, 120, 120);
+            int[] index = CoordPacker.indexPacked(packed), sparse = CoordPacker.indexPacked(packed, 4);
+            for (int i = 0; i < 120; i++) {
+                for (int j = 0; j < 120; j++) {
+                    assertEquals(unpacked[i][j], CoordPacker.queryPacked(packed, index, i, j));
+                    assertEquals(unpacked[i][j], CoordPacker.queryPacked(packed, sparse, i, j));
+                }
+            }
+            for (int r = 0; r < 50; r++) {
+                int start = rng.nextInt(0x4000), end = start + rng.nextInt(0x800), count = 0;
+                for (int h = start; h < end; h++) {
+                    if (CoordPacker.hilbertX[h] < 120 && CoordPacker.hilbertY[h] < 120
+                            && unpacked[CoordPacker.hilbertX[h]][CoordPacker.hilbertY[h]])
+                        count++;
+                }
+                assertEquals(count, CoordPacker.countPacked(packed, index, start, end));
+                assertEquals(count, CoordPacker.countPacked(packed, sparse, start, end));
+                assertEquals(count > 0, CoordPacker.anyPacked(packed, sparse, start, end));
+            }
+        }
+    }
+
+    @Test
+    public void testManyWay()
+    {
+        StatefulRNG rng = new StatefulRNG(new LightRNG(0xAAAA2D2));
+        DungeonGenerator dungeonGenerator = new DungeonGenerator(100, 90, rng);
+        char[][] map = dungeonGenerator.generate(TilesetType.DEFAULT_DUNGEON);
+        FOV fov = new FOV();
+        double[][] resMap = DungeonUtility.generateResistances(map);
+        short[][] many = new short[30][];
+        int[][] counts = new int[100][90];
+        for (int t = 0; t < many.length; t++) {
+            Coord viewer = t % 10 == 0 ? Coord.get(50, 45) : dungeonGenerator.utility.randomFloor(map);
+            many[t] = CoordPacker.pack(fov.calculateFOV(resMap, viewer.x, viewer.y, FOV_RANGE, RADIUS));
+            boolean[][] unpacked = CoordPacker.unpack(many[t], 100, 90);
+            for (int i = 0; i < 100; i++) {
+                for (int j = 0; j < 90; j++) {
+                    if (unpacked[i][j]) counts[i][j]++;
+                }
+            }
+        }
+        boolean[][] union = CoordPacker.unpack(CoordPacker.unionPackedMany(many), 100, 90),
+                intersect = CoordPacker.unpack(CoordPacker.intersectPackedMany(many), 100, 90),
+                atLeast = CoordPacker.unpack(CoordPacker.countPackedAtLeast(3, many), 100, 90);
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 90; j++) {
+                assertEquals(counts[i][j] > 0, union[i][j]);
+                assertEquals(counts[i][j] == many.length, intersect[i][j]);
+                assertEquals(counts[i][j] >= 3, atLeast[i][j]);
+            }
+        }
+        assertArrayEquals(CoordPacker.unionPacked(many[0], many[1]), CoordPacker.unionPackedMany(many[0], many[1]));
+
+        PackedCursor cursor = new PackedCursor();
+        for (int t = 0; t < many.length; t++) {
+            Coord[] all = CoordPacker.allPacked(many[t]);
+            cursor.reset(many[t]);
+            int n = 0;
+            while (cursor.nextCell()) {
+                assertEquals(all[n++], Coord.get(cursor.x, cursor.y));
+            }
+            assertEquals(all.length, n);
+        }
+    }
+
+    @Test
+    public void testTiled()
+    {
+        StatefulRNG rng = new StatefulRNG(new LightRNG(0xAAAA2D2));
+        int width = 600, height = 520;
+        boolean[][] a = new boolean[width][height], b = new boolean[width][height];
+        for (int n = 0; n < 40; n++) {
+            int cx = rng.nextInt(width), cy = rng.nextInt(height), r = rng.between(3, 20);
+            boolean[][] target = (n & 1) == 0 ? a : b;
+            for (int x = Math.max(0, cx - r); x < Math.min(width, cx + r); x++) {
+                for (int y = Math.max(0, cy - r); y < Math.min(height, cy + r); y++) {
+                    target[x][y] = true;
+                }
+            }
+        }
+        short[][][] packedA = CoordPacker.packTiled(a), packedB = CoordPacker.packTiled(b);
+        assertEquals(3, packedA.length);
+        assertEquals(3, packedA[0].length);
+        boolean[][] unpacked = CoordPacker.unpackTiled(packedA, width, height),
+                union = CoordPacker.unpackTiled(CoordPacker.unionTiled(packedA, packedB), width, height),
+                intersect = CoordPacker.unpackTiled(CoordPacker.intersectTiled(packedA, packedB), width, height);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                assertEquals(a[x][y], unpacked[x][y]);
+                assertEquals(b[x][y], CoordPacker.queryTiled(packedB, x, y));
+                assertEquals(a[x][y] || b[x][y], union[x][y]);
+                assertEquals(a[x][y] && b[x][y], intersect[x][y]);
+            }
+        }
+        assertFalse(CoordPacker.queryTiled(packedA, 5000, 5000));
+    }
+
+    @Test
+    public void testBatchHilbert()
+    {
+        int[] xs = new int[0x10000], ys = new int[0x10000], mortons = new int[0x10000], all = new int[0x10000];
+        Coord[] points = new Coord[0x10000];
+        for (int i = 0; i < 0x10000; i++) {
+            xs[i] = i & 255;
+            ys[i] = i >>> 8;
+            points[i] = Coord.get(xs[i], ys[i]);
+            mortons[i] = CoordPacker.mortonEncode(xs[i], ys[i]);
+            all[i] = i;
+        }
+        int[] hilberts = CoordPacker.posToHilbert(xs, ys, null),
+                fromCoords = CoordPacker.coordsToHilbert(points, new int[0x10000]),
+                fromMortons = CoordPacker.mortonToHilbert(mortons, null),
+                backToMortons = CoordPacker.hilbertToMorton(all, null),
+                decodedX = new int[0x10000], decodedY = new int[0x10000];
+        CoordPacker.hilbertToPos(all, decodedX, decodedY);
+        Coord[] decoded = CoordPacker.hilbertToCoords(all, null);
+        for (int i = 0; i < 0x10000; i++) {
+            assertEquals(CoordPacker.posToHilbert(xs[i], ys[i]), hilberts[i]);
+            assertEquals(hilberts[i], fromCoords[i]);
+            assertEquals(hilberts[i], fromMortons[i]);
+            assertEquals(CoordPacker.hilbertToMorton(i), backToMortons[i]);
+            assertEquals(CoordPacker.hilbertX[i], decodedX[i]);
+            assertEquals(CoordPacker.hilbertY[i], decodedY[i]);
+            assertEquals(CoordPacker.hilbertToCoord(i), decoded[i]);
+        }
+    }
+
     @Test
     public void testPackOptimalParameters()
     {
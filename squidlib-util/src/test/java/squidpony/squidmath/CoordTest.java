@@ -0,0 +1,60 @@
+package squidpony.squidmath;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * test to check that {@link Coord#get(int, int)} pools Coords past the fixed pool, on any thread
+ */
+public class CoordTest {
+
+	@Test
+	public void testPooling() {
+		assertSame(Coord.get(-3, 255), Coord.get(-3, 255));
+		assertSame(Coord.get(256, 0), Coord.get(256, 0));
+		assertSame(Coord.get(1000, 1023), Coord.get(999, 1023).translate(1, 0));
+		assertSame(Coord.get(16383, 16383), Coord.get(16383, 16383));
+		assertNotSame(Coord.get(16384, 0), Coord.get(16384, 0));
+		assertNotSame(Coord.get(-4, 0), Coord.get(-4, 0));
+		for (int x = 250; x < 330; x++) {
+			for (int y = 250; y < 330; y++) {
+				Coord c = Coord.get(x, y);
+				assertEquals(x, c.x);
+				assertEquals(y, c.y);
+			}
+		}
+		Coord.expandPool(2000, 100);
+		assertSame(Coord.get(2255, 300), Coord.get(2255, 300));
+	}
+
+	@Test
+	public void testThreads() throws InterruptedException {
+		final Coord[][] seen = new Coord[8][];
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < seen.length; i++) {
+			final int t = i;
+			pool.execute(new Runnable() {
+				@Override
+				public void run() {
+					Coord[] cs = new Coord[4096];
+					for (int j = 0; j < cs.length; j++) {
+						cs[j] = Coord.get(5000 + (j & 63), 7000 + (j >>> 6));
+					}
+					seen[t] = cs;
+				}
+			});
+		}
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+		for (int i = 1; i < seen.length; i++) {
+			for (int j = 0; j < seen[i].length; j++) {
+				assertSame(seen[0][j], seen[i][j]);
+			}
+		}
+	}
+}
@@ -8,6 +8,9 @@ import squidpony.squidgrid.mapping.DungeonGenerator;
 import squidpony.squidgrid.mapping.DungeonUtility;
 import squidpony.squidgrid.mapping.styled.TilesetType;
 
+import java.util.Arrays;
+import java.util.concurrent.Future;
+
 import static org.junit.Assert.*;
 
 /**
@@ -39,4 +42,165 @@ public class FOVCacheTest {
 
         }
     }
+
+    @Test
+    public void testCompactCache()
+    {
+        int width = 60;
+        int height = 60;
+        for (long r = 0, seed = 0xCAB; r < 4; r++, seed ^= seed << 2) {
+            StatefulRNG rng = new StatefulRNG(new LightRNG(seed));
+            DungeonGenerator dungeonGenerator = new DungeonGenerator(width, height, rng);
+            dungeonGenerator.addDoors(15, true);
+            char[][] map = DungeonUtility.closeDoors(dungeonGenerator.generate(TilesetType.DEFAULT_DUNGEON));
+
+            FOVCache cache = new FOVCache(map, 10, Radius.CIRCLE, 8),
+                    compact = new FOVCache(map, 10, Radius.CIRCLE, 8, true);
+            cache.cacheAll();
+            compact.cacheAll();
+            assertTrue(compact.memoryUsed() * 8 < cache.memoryUsed());
+            Coord walkable = dungeonGenerator.utility.randomFloor(map);
+            byte[][] seen = cache.waveFOV(walkable.x, walkable.y),
+                    unpacked = compact.unpackCompactEntry(walkable.x, walkable.y);
+            for (int i = 0; i < seen.length; i++) {
+                assertArrayEquals(seen[i], unpacked[i]);
+            }
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    for (int range = 1; range <= 10; range += 3) {
+                        assertEquals(cache.isCellVisible(range, walkable.x, walkable.y, x, y),
+                                compact.isCellVisible(range, walkable.x, walkable.y, x, y));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLargeCompactCache()
+    {
+        int width = 320;
+        int height = 300;
+        StatefulRNG rng = new StatefulRNG(new LightRNG(0xCAB));
+        DungeonGenerator dungeonGenerator = new DungeonGenerator(width, height, rng);
+        char[][] map = dungeonGenerator.generate(TilesetType.DEFAULT_DUNGEON);
+        FOVCache compact = new FOVCache(map, 8, Radius.SQUARE, 8, true);
+        compact.cacheAll();
+        for (int i = 0; i < 20; i++) {
+            Coord walkable = dungeonGenerator.utility.randomFloor(map);
+            byte[][] seen = compact.waveFOV(walkable.x, walkable.y),
+                    unpacked = compact.unpackCompactEntry(walkable.x, walkable.y);
+            for (int x = 0; x < width; x++) {
+                assertArrayEquals(seen[x], unpacked[x]);
+            }
+        }
+    }
+
+    @Test
+    public void testChangeCell() throws Exception
+    {
+        int width = 50;
+        int height = 50;
+        StatefulRNG rng = new StatefulRNG(new LightRNG(0xCAB));
+        DungeonGenerator dungeonGenerator = new DungeonGenerator(width, height, rng);
+        dungeonGenerator.addDoors(30, true);
+        char[][] map = DungeonUtility.closeDoors(dungeonGenerator.generate(TilesetType.DEFAULT_DUNGEON));
+        FOVCache cache = new FOVCache(map, 8, Radius.CIRCLE, 4),
+                compact = new FOVCache(map, 8, Radius.CIRCLE, 4, true);
+        cache.cacheAll();
+        compact.cacheAll();
+        int changes = 0;
+        for (int x = 0; x < width && changes < 3; x++) {
+            for (int y = 0; y < height && changes < 3; y++) {
+                if (map[x][y] == '+') {
+                    map[x][y] = '/';
+                    for (Future<Long> f : cache.changeCell(x, y, '/')) {
+                        f.get();
+                    }
+                    for (Future<Long> f : compact.changeCell(x, y, '/')) {
+                        f.get();
+                    }
+                    changes++;
+                }
+            }
+        }
+        assertTrue(changes > 0);
+        FOVCache fresh = new FOVCache(map, 8, Radius.CIRCLE, 4),
+                freshCompact = new FOVCache(map, 8, Radius.CIRCLE, 4, true);
+        fresh.cacheAll();
+        freshCompact.cacheAll();
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                assertTrue(Arrays.deepEquals(fresh.getCacheEntry(x, y), cache.getCacheEntry(x, y)));
+                assertArrayEquals(freshCompact.getCompactEntry(x, y), compact.getCompactEntry(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testLazyCache()
+    {
+        int width = 60;
+        int height = 60;
+        StatefulRNG rng = new StatefulRNG(new LightRNG(0xCAB));
+        DungeonGenerator dungeonGenerator = new DungeonGenerator(width, height, rng);
+        dungeonGenerator.addDoors(30, true);
+        char[][] map = DungeonUtility.closeDoors(dungeonGenerator.generate(TilesetType.DEFAULT_DUNGEON));
+        FOVCache cache = new FOVCache(map, 8, Radius.CIRCLE, 4),
+                lazy = new FOVCache(map, 8, Radius.CIRCLE, 4),
+                lazyCompact = new FOVCache(map, 8, Radius.CIRCLE, 4, true);
+        cache.cacheAll();
+        lazy.setLazyBudget(20, 0);
+        lazyCompact.setLazyBudget(0, 4000);
+        for (int i = 0; i < 100; i++) {
+            Coord viewer = dungeonGenerator.utility.randomFloor(map);
+            assertTrue(Arrays.deepEquals(cache.getCacheEntry(viewer.x, viewer.y),
+                    lazy.getCacheEntry(viewer.x, viewer.y)));
+            byte[][] seen = cache.waveFOV(viewer.x, viewer.y),
+                    unpacked = lazyCompact.unpackCompactEntry(viewer.x, viewer.y);
+            for (int x = 0; x < width; x++) {
+                assertArrayEquals(seen[x], unpacked[x]);
+            }
+            Coord target = dungeonGenerator.utility.randomFloor(map);
+            assertEquals(cache.isCellVisible(8, viewer.x, viewer.y, target.x, target.y),
+                    lazy.isCellVisible(8, viewer.x, viewer.y, target.x, target.y));
+            assertEquals(cache.isCellVisible(8, viewer.x, viewer.y, target.x, target.y),
+                    lazyCompact.isCellVisible(8, viewer.x, viewer.y, target.x, target.y));
+            assertTrue(lazyCompact.memoryUsed() <= 4000);
+        }
+    }
+
+    @Test
+    public void testVisibilityBits()
+    {
+        int width = 70;
+        int height = 50;
+        StatefulRNG rng = new StatefulRNG(new LightRNG(0xCAB));
+        DungeonGenerator dungeonGenerator = new DungeonGenerator(width, height, rng);
+        char[][] map = dungeonGenerator.generate(TilesetType.DEFAULT_DUNGEON);
+        double[][] res = DungeonUtility.generateResistances(map);
+        FOV fov = new FOV(FOV.SHADOW);
+        FOVCache cache = new FOVCache(map, 9, Radius.CIRCLE, 4),
+                compact = new FOVCache(map, 9, Radius.CIRCLE, 4, true);
+        cache.cacheAll();
+        compact.cacheAll();
+        long[] bits = null, cached = null, compactBits = null;
+        for (int i = 0; i < 40; i++) {
+            Coord viewer = dungeonGenerator.utility.randomFloor(map);
+            double[][] light = fov.calculateFOV(res, viewer.x, viewer.y, 9, Radius.CIRCLE);
+            bits = fov.calculateVisibility(res, viewer.x, viewer.y, 9, Radius.CIRCLE, bits);
+            int range = 1 + i % 9;
+            cached = cache.getVisibility(range, viewer.x, viewer.y, cached);
+            compactBits = compact.getVisibility(range, viewer.x, viewer.y, compactBits);
+            byte[][] levels = cache.waveFOV(viewer.x, viewer.y);
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    assertEquals(light[x][y] > 0, FOV.isVisible(bits, height, x, y));
+                    assertEquals(levels[x][y] > 9 - range, FOV.isVisible(cached, height, x, y));
+                }
+            }
+            assertArrayEquals(cached, compactBits);
+            assertTrue(FOV.intersects(bits, FOV.intersectVisibility(bits, cached, null)));
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package squidpony.squidmath;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * test to check that {@link IntSet} and {@link IntDoubleMap} agree with HashSet and HashMap through many random changes
+ */
+public class IntSetTest {
+
+	@Test
+	public void testIntSet() {
+		RNG rng = new RNG(new LightRNG(0x1234L));
+		IntSet set = new IntSet(4);
+		HashSet<Integer> expected = new HashSet<>();
+		for (int i = 0; i < 20000; i++) {
+			// small keys collide often, and 0 is stored apart from the table
+			int key = Coord.encode(rng.nextInt(40), rng.nextInt(40));
+			if (rng.nextInt(3) == 0)
+				assertEquals(expected.remove(key), set.remove(key));
+			else
+				assertEquals(expected.add(key), set.add(key));
+			assertEquals(expected.size(), set.size());
+		}
+		for (int x = 0; x < 40; x++) {
+			for (int y = 0; y < 40; y++) {
+				assertEquals(expected.contains(Coord.encode(x, y)), set.contains(Coord.encode(x, y)));
+			}
+		}
+		HashSet<Integer> seen = new HashSet<>();
+		IntSet.Cursor cursor = set.cursor();
+		while (cursor.next()) {
+			assertTrue(seen.add(cursor.key));
+		}
+		assertEquals(expected, seen);
+		assertEquals(set.size(), set.toArray().length);
+
+		IntSet copy = IntSet.with(0, -1, Integer.MIN_VALUE);
+		assertEquals(3, copy.size());
+		copy.addAll(set);
+		assertTrue(copy.contains(0) && copy.contains(-1) && copy.contains(Integer.MIN_VALUE));
+		set.clear();
+		assertTrue(set.isEmpty());
+		assertFalse(set.contains(0));
+		assertFalse(cursor.reset(set).next());
+	}
+
+	@Test
+	public void testIntDoubleMap() {
+		RNG rng = new RNG(new LightRNG(0x5678L));
+		IntDoubleMap map = new IntDoubleMap(4);
+		map.defaultValue = -1.0;
+		HashMap<Integer, Double> expected = new HashMap<>();
+		for (int i = 0; i < 20000; i++) {
+			int key = Coord.encode(rng.nextInt(40), rng.nextInt(40));
+			Double old;
+			if (rng.nextInt(3) == 0) {
+				old = expected.remove(key);
+				assertEquals(old == null ? -1.0 : old, map.remove(key), 0.0);
+			} else {
+				double value = rng.nextDouble();
+				old = expected.put(key, value);
+				assertEquals(old == null ? -1.0 : old, map.put(key, value), 0.0);
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for (int x = 0; x < 40; x++) {
+			for (int y = 0; y < 40; y++) {
+				int key = Coord.encode(x, y);
+				Double value = expected.get(key);
+				assertEquals(value != null, map.containsKey(key));
+				assertEquals(value == null ? -1.0 : value, map.get(key), 0.0);
+			}
+		}
+		HashMap<Integer, Double> seen = new HashMap<>();
+		IntDoubleMap.Cursor cursor = map.cursor();
+		while (cursor.next()) {
+			assertNull(seen.put(cursor.key, cursor.value));
+		}
+		assertEquals(expected, seen);
+		assertEquals(expected.size(), map.keySet().size());
+	}
+
+	@Test
+	public void testEncode() {
+		assertTrue(IntSet.with(Coord.encode(3, 4)).contains(Coord.encode(3, 4)));
+		int[] xs = {0, 1, 255, 1000, 65535}, ys = {0, 7, 256, 16383, 65535};
+		for (int x : xs) {
+			for (int y : ys) {
+				int code = Coord.encode(x, y);
+				assertEquals(x, Coord.decodeX(code));
+				assertEquals(y, Coord.decodeY(code));
+				assertEquals(code, Coord.get(x, y).encode());
+				assertEquals(Coord.get(x, y), Coord.decode(code));
+			}
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package squidpony.squidmath;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+
+/**
+ * test to check that {@link ProbabilityTable} picks items in proportion to their weights
+ */
+public class ProbabilityTableTest {
+
+	@Test
+	public void testEmpty() {
+		assertNull(new ProbabilityTable<String>().random());
+	}
+
+	@Test
+	public void testWeights() {
+		ProbabilityTable<String> table = new ProbabilityTable<>(new RNG(new LightRNG(0xABCL)));
+		table.add("rare", 1);
+		table.add("common", 6);
+		table.add("uncommon", 3);
+		checkFrequencies(table, 100000);
+
+		// adding after drawing rebuilds the table
+		table.add("rare", 4);
+		table.add("new", 10);
+		checkFrequencies(table, 100000);
+
+		ProbabilityTable<Integer> single = new ProbabilityTable<>(new RNG(new LightRNG(1L)));
+		single.add(7, 3);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(Integer.valueOf(7), single.random());
+		}
+	}
+
+	private static void checkFrequencies(ProbabilityTable<String> table, int draws) {
+		int total = 0;
+		for (String s : table.items()) {
+			total += table.weight(s);
+		}
+		HashMap<String, Integer> counts = new HashMap<>();
+		for (int i = 0; i < draws; i++) {
+			String s = table.random();
+			Integer c = counts.get(s);
+			counts.put(s, c == null ? 1 : c + 1);
+		}
+		assertEquals(table.items(), counts.keySet());
+		for (String s : table.items()) {
+			double expected = table.weight(s) / (double) total;
+			assertEquals(expected, counts.get(s) / (double) draws, 0.01);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package squidpony.squidmath;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * test to check that the bulk methods of each {@link RandomnessSource} match calling {@link RNG} once per item
+ */
+public class RandomnessSourceTest {
+
+	private static RandomnessSource[] pair(int which) {
+		switch (which) {
+			case 0:
+				return new RandomnessSource[]{new LightRNG(123456789L), new LightRNG(123456789L)};
+			case 1:
+				return new RandomnessSource[]{new PermutedRNG(123456789L), new PermutedRNG(123456789L)};
+			case 2:
+				return new RandomnessSource[]{new XorRNG(123456789L), new XorRNG(123456789L)};
+			default:
+				byte[] seed = {1, 2, 3, 4, 5, 6, 7, 8};
+				return new RandomnessSource[]{new MersenneTwister(seed), new MersenneTwister(seed)};
+		}
+	}
+
+	@Test
+	public void testNextInts() {
+		int[] bounds = {1, 7, 16, 1000, 0x40000001, 0, -5};
+		for (int which = 0; which < 4; which++) {
+			RandomnessSource[] sources = pair(which);
+			RNG bulk = new RNG(sources[0]), single = new RNG(sources[1]);
+			for (int bound : bounds) {
+				int[] out = bulk.nextInts(new int[1000], bound);
+				for (int i = 0; i < out.length; i++) {
+					assertEquals(single.nextInt(bound), out[i]);
+				}
+			}
+			// both should still be in step afterwards
+			assertEquals(single.nextInt(), bulk.nextInt());
+		}
+	}
+
+	@Test
+	public void testNextLongs() {
+		LightRNG light = new LightRNG(42L), lightSingle = new LightRNG(42L);
+		PermutedRNG permuted = new PermutedRNG(42L), permutedSingle = new PermutedRNG(42L);
+		XorRNG xor = new XorRNG(42L), xorSingle = new XorRNG(42L);
+		long[] a = new long[500], b = new long[500], c = new long[500];
+		light.nextLongs(a);
+		permuted.nextLongs(b);
+		xor.nextLongs(c);
+		for (int i = 0; i < 500; i++) {
+			assertEquals(lightSingle.nextLong(), a[i]);
+			assertEquals(permutedSingle.nextLong(), b[i]);
+			assertEquals(xorSingle.nextLong(), c[i]);
+		}
+		RandomnessSource[] mt = pair(3);
+		RNG bulk = new RNG(mt[0]), single = new RNG(mt[1]);
+		bulk.nextLongs(a);
+		for (int i = 0; i < 500; i++) {
+			assertEquals(single.nextLong(), a[i]);
+		}
+	}
+
+	@Test
+	public void testNextDoubles() {
+		for (int which = 0; which < 4; which++) {
+			RandomnessSource[] sources = pair(which);
+			double[] out = new RNG(sources[0]).nextDoubles(new double[10000]);
+			double sum = 0.0;
+			for (int i = 0; i < out.length; i++) {
+				assertTrue(out[i] >= 0.0 && out[i] < 1.0);
+				sum += out[i];
+			}
+			assertEquals(0.5, sum / out.length, 0.02);
+		}
+		LightRNG light = new LightRNG(7L), lightSingle = new LightRNG(7L);
+		double[] out = new double[100];
+		light.nextDoubles(out);
+		for (int i = 0; i < out.length; i++) {
+			assertEquals(lightSingle.nextDouble(), out[i], 0.0);
+		}
+		RandomnessSource[] mt = pair(3);
+		RNG bulk = new RNG(mt[0]), single = new RNG(mt[1]);
+		bulk.nextDoubles(out);
+		for (int i = 0; i < out.length; i++) {
+			assertEquals(single.nextDouble(), out[i], 0.0);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package squidpony.squidmath;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import squidpony.squidgrid.mapping.DungeonGenerator;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * test to check that substreams of {@link StatefulRandomness} generators are reproducible and independent of threads
+ */
+public class SubstreamTest {
+
+	@Test
+	public void testSubstreamPositions() {
+		LightRNG light = new LightRNG(0xDEADL);
+		LightRNG skipped = new LightRNG(0xDEADL);
+		skipped.skip(3 * LightRNG.SUBSTREAM_LENGTH);
+		assertEquals(skipped.nextLong(), light.substream(3).nextLong());
+		assertEquals(new LightRNG(0xDEADL).nextLong(), light.substream(0).nextLong());
+		assertEquals(0xDEADL, light.getState());
+
+		PermutedRNG permuted = new PermutedRNG(0xDEADL);
+		PermutedRNG permutedSkipped = new PermutedRNG(0xDEADL);
+		permutedSkipped.skip(5 * PermutedRNG.SUBSTREAM_LENGTH);
+		assertEquals(permutedSkipped.nextInt(), permuted.substream(5).nextInt());
+
+		StatefulRNG root = new StatefulRNG(new LightRNG(0xDEADL));
+		assertNotEquals(root.substream(1).nextLong(), root.substream(2).nextLong());
+		assertEquals(root.substream(7).nextLong(), new StatefulRNG(new LightRNG(0xDEADL)).substream(7).nextLong());
+	}
+
+	@Test
+	public void testParallelDungeons() throws InterruptedException {
+		final int units = 8;
+		final StatefulRNG root = new StatefulRNG(new LightRNG(0xBADBEEFL));
+		String[] sequential = new String[units];
+		DungeonGenerator reused = new DungeonGenerator(40, 40, new StatefulRNG());
+		for (int i = 0; i < units; i++) {
+			reused.setRng(root.substream(i));
+			sequential[i] = toString(reused.generate());
+		}
+		final String[] parallel = new String[units];
+		ExecutorService pool = Executors.newFixedThreadPool(3);
+		for (int i = units - 1; i >= 0; i--) {
+			final int unit = i;
+			pool.execute(new Runnable() {
+				@Override
+				public void run() {
+					parallel[unit] = SubstreamTest.toString(
+							new DungeonGenerator(40, 40, root.substream(unit)).generate());
+				}
+			});
+		}
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+		assertArrayEquals(sequential, parallel);
+		assertNotEquals(sequential[0], sequential[1]);
+	}
+
+	private static String toString(char[][] map) {
+		StringBuilder sb = new StringBuilder();
+		for (char[] column : map) {
+			sb.append(column).append('\n');
+		}
+		return sb.toString();
+	}
+}